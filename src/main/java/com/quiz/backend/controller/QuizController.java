@@ -2,64 +2,145 @@ package com.quiz.backend.controller;
 
 import com.quiz.backend.model.Question;
 import com.quiz.backend.model.QuizResult;
+import com.quiz.backend.model.ResultAggregate;
+import com.quiz.backend.service.CompressedResponseCache;
+import com.quiz.backend.service.IdempotencyCache;
 import com.quiz.backend.service.QuizService;
+import com.quiz.backend.service.ResultArchiveService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/quiz")
-@CrossOrigin(origins = "http://localhost:5173")
+@CrossOrigin(origins = "http://localhost:5173", exposedHeaders = "X-Near-Duplicates")
 public class QuizController {
     
+    private static final byte[] EMPTY_JSON_ARRAY = "[]".getBytes(StandardCharsets.UTF_8);
+    
     @Autowired
     private QuizService quizService;
     
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+    
+    @Autowired
+    private ResultArchiveService resultArchiveService;
+    
+    @Autowired
+    private CompressedResponseCache responseCache;
+    
     @GetMapping("/")
     public String welcome() {
         return "🎯 Quiz Application API is running! Total questions: " + quizService.getAllQuestions().size();
     }
     
     @GetMapping("/questions")
-    public ResponseEntity<List<Question>> getAllQuestions() {
-        return ResponseEntity.ok(quizService.getAllQuestions());
+    public ResponseEntity<byte[]> getAllQuestions(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return cachedJson(acceptEncoding, "questions", quizService.getQuestionsVersion(), quizService::getAllQuestions);
     }
     
     @GetMapping("/questions/category/{category}")
-    public ResponseEntity<List<Question>> getQuestionsByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(quizService.getQuestionsByCategory(category));
+    public ResponseEntity<byte[]> getQuestionsByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) Integer count,
+            @RequestParam(required = false) String userEmail) {
+        return questionListJson(quizService.getQuestionsByCategory(category, count, userEmail));
     }
     
     @GetMapping("/questions/category/{category}/difficulty/{difficulty}")
-    public ResponseEntity<List<Question>> getQuestionsByCategoryAndDifficulty(
+    public ResponseEntity<byte[]> getQuestionsByCategoryAndDifficulty(
             @PathVariable String category,
-            @PathVariable String difficulty) {
-        return ResponseEntity.ok(quizService.getQuestionsByCategoryAndDifficulty(category, difficulty));
+            @PathVariable String difficulty,
+            @RequestParam(required = false) Integer count,
+            @RequestParam(required = false) String userEmail) {
+        return questionListJson(quizService.getQuestionsByCategoryAndDifficulty(category, difficulty, count, userEmail));
     }
     
     @GetMapping("/categories")
-    public ResponseEntity<List<String>> getAllCategories() {
-        return ResponseEntity.ok(quizService.getAllCategories());
+    public ResponseEntity<byte[]> getAllCategories(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return cachedJson(acceptEncoding, "categories", quizService.getQuestionsVersion(), quizService::getAllCategories);
+    }
+    
+    @GetMapping("/questions/search")
+    public ResponseEntity<List<Question>> searchQuestions(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(quizService.searchQuestions(q, Math.min(limit, 100)));
     }
     
     @PostMapping("/questions")
     public ResponseEntity<Question> addQuestion(@RequestBody Question question) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(quizService.addQuestion(question));
+        // Near-duplicates are reported, not rejected, so editors can decide
+        List<Long> nearDuplicates = quizService.findNearDuplicates(question);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (!nearDuplicates.isEmpty()) {
+            response.header("X-Near-Duplicates", nearDuplicates.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+        return response.body(quizService.addQuestion(question));
     }
     
     @DeleteMapping("/questions/{id}")
     public ResponseEntity<String> deleteQuestion(@PathVariable Long id) {
         quizService.deleteQuestion(id);
+        responseCache.evictQuestion(id);
         return ResponseEntity.ok("Question deleted successfully");
     }
     
     @PostMapping("/submit")
-    public ResponseEntity<Map<String, Object>> submitQuiz(@RequestBody Map<String, Object> submission) {
+    public ResponseEntity<Map<String, Object>> submitQuiz(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody Map<String, Object> submission) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return processSubmission(submission);
+        }
+        if (idempotencyKey.length() > IdempotencyCache.MAX_KEY_LENGTH) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Idempotency-Key must be at most " + IdempotencyCache.MAX_KEY_LENGTH + " characters");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+        // Retried submissions replay the original response without rescoring or saving again
+        try {
+            return idempotencyCache.execute(idempotencyKey, fingerprint(submission),
+                    () -> processSubmission(submission),
+                    response -> response.getStatusCode().is2xxSuccessful());
+        } catch (IdempotencyCache.KeyReuseException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorResponse);
+        }
+    }
+    
+    // Digest of the whole submission with keys in a stable order
+    private static String fingerprint(Map<String, Object> submission) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(new TreeMap<>(submission).toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private ResponseEntity<Map<String, Object>> processSubmission(Map<String, Object> submission) {
         try {
             String userName = (String) submission.get("userName");
             String userEmail = (String) submission.get("userEmail");
@@ -74,6 +155,10 @@ public class QuizController {
             List<Integer> questionIdsInt = (List<Integer>) submission.get("questionIds");
             List<Long> questionIds = questionIdsInt.stream().map(Long::valueOf).toList();
             
+            if (!quizService.isKnownCategory(category)) {
+                throw new IllegalArgumentException("Unknown category: " + category);
+            }
+            
             int score = quizService.calculateScore(userAnswers, questionIds);
             int total = questionIds.size();
             double percentage = (score * 100.0) / total;
@@ -81,6 +166,7 @@ public class QuizController {
             QuizResult result = new QuizResult(null, userName, userEmail, score, total, 
                                               category, difficulty, timeTaken);
             quizService.saveResult(result);
+            quizService.recordAnswers(userEmail, questionIds, userAnswers);
             
             Map<String, Object> response = new HashMap<>();
             response.put("score", score);
@@ -99,13 +185,21 @@ public class QuizController {
     }
     
     @GetMapping("/leaderboard")
-    public ResponseEntity<List<QuizResult>> getLeaderboard() {
-        return ResponseEntity.ok(quizService.getLeaderboard());
+    public ResponseEntity<byte[]> getLeaderboard(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return cachedJson(acceptEncoding, "leaderboard", quizService.getLeaderboardVersion(), quizService::getLeaderboard);
     }
     
     @GetMapping("/leaderboard/category/{category}")
-    public ResponseEntity<List<QuizResult>> getLeaderboardByCategory(@PathVariable String category) {
-        return ResponseEntity.ok(quizService.getLeaderboardByCategory(category));
+    public ResponseEntity<byte[]> getLeaderboardByCategory(
+            @PathVariable String category,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Only categories with results are cached, so made-up paths cannot fill the cache
+        if (!quizService.hasLeaderboard(category)) {
+            return emptyJsonArray();
+        }
+        return cachedJson(acceptEncoding, "leaderboard/" + category.toLowerCase(Locale.ROOT),
+                quizService.getLeaderboardVersion(category), () -> quizService.getLeaderboardByCategory(category));
     }
     
     @GetMapping("/results/user/{userEmail}")
@@ -118,16 +212,72 @@ public class QuizController {
         return ResponseEntity.ok(quizService.getAllResults());
     }
     
+    @GetMapping(value = "/results/archive", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getArchivedResults(
+            @RequestParam(required = false) String userEmail,
+            @RequestParam(required = false) String category) {
+        StreamingResponseBody body = out -> resultArchiveService.streamArchive(userEmail, category, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
+    @GetMapping("/results/aggregates")
+    public ResponseEntity<List<ResultAggregate>> getArchivedAggregates() {
+        return ResponseEntity.ok(resultArchiveService.getAggregates());
+    }
+    
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getStats() {
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalQuestions", quizService.getAllQuestions().size());
         stats.put("totalCategories", quizService.getAllCategories().size());
         stats.put("categories", quizService.getAllCategories());
-        stats.put("totalAttempts", quizService.getAllResults().size());
+        stats.put("totalAttempts", quizService.getAllResults().size() + resultArchiveService.getArchivedCount());
+        stats.put("archivedAttempts", resultArchiveService.getArchivedCount());
+        stats.put("compression", responseCache.getStats());
         return ResponseEntity.ok(stats);
     }
     
+    // Serves a cached payload, pre-gzipped when the client accepts it and it is actually smaller
+    private ResponseEntity<byte[]> cachedJson(String acceptEncoding, String key, long version, Supplier<Object> body) {
+        CompressedResponseCache.Payload payload = responseCache.get(key, version, body);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding) && payload.gzip().length < payload.json().length) {
+            responseCache.recordSent(payload.json().length, payload.gzip().length);
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+        }
+        responseCache.recordSent(payload.json().length, payload.json().length);
+        return response.body(payload.json());
+    }
+    
+    // Per-request question lists are left to the container's gzip compression
+    private ResponseEntity<byte[]> questionListJson(List<Question> questions) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(responseCache.questionList(questions));
+    }
+    
+    private static ResponseEntity<byte[]> emptyJsonArray() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(EMPTY_JSON_ARRAY.clone());
+    }
+    
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+    
     private String getScoreMessage(double percentage) {
         if (percentage >= 90) return "Outstanding! 🎉";
         else if (percentage >= 70) return "Great job! 👏";
@@ -0,0 +1,79 @@
+package com.quiz.backend.model;
+
+public class ResultAggregate {
+    private String category;
+    private String difficulty;
+    private long attempts;
+    private long totalScore;
+    private long totalQuestions;
+    private long totalTimeTaken;
+    
+    public ResultAggregate() {
+    }
+    
+    public ResultAggregate(String category, String difficulty) {
+        this.category = category;
+        this.difficulty = difficulty;
+    }
+    
+    public ResultAggregate add(QuizResult result) {
+        attempts++;
+        totalScore += result.getScore();
+        totalQuestions += result.getTotalQuestions();
+        totalTimeTaken += result.getTimeTaken();
+        return this;
+    }
+    
+    // Getters and Setters
+    public String getCategory() {
+        return category;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public String getDifficulty() {
+        return difficulty;
+    }
+    
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+    
+    public long getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(long attempts) {
+        this.attempts = attempts;
+    }
+    
+    public long getTotalScore() {
+        return totalScore;
+    }
+    
+    public void setTotalScore(long totalScore) {
+        this.totalScore = totalScore;
+    }
+    
+    public long getTotalQuestions() {
+        return totalQuestions;
+    }
+    
+    public void setTotalQuestions(long totalQuestions) {
+        this.totalQuestions = totalQuestions;
+    }
+    
+    public long getTotalTimeTaken() {
+        return totalTimeTaken;
+    }
+    
+    public void setTotalTimeTaken(long totalTimeTaken) {
+        this.totalTimeTaken = totalTimeTaken;
+    }
+    
+    public double getAveragePercentage() {
+        return totalQuestions == 0 ? 0 : (totalScore * 100.0) / totalQuestions;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.quiz.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quiz.backend.model.Question;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Holds serialized, and for stable resources also gzipped, JSON payloads so
+ * hot responses skip Jackson and compression on every request. Entries are
+ * keyed by resource and replaced when the caller's version number moves;
+ * past {@value #MAX_PAYLOADS} keys the least recently used one is dropped.
+ */
+@Component
+public class CompressedResponseCache {
+    
+    // Bounds the cache when callers key entries by path segments
+    static final int MAX_PAYLOADS = 1024;
+    
+    private final ObjectMapper objectMapper;
+    
+    private final Map<String, Payload> payloads = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Payload> eldest) {
+                    return size() > MAX_PAYLOADS;
+                }
+            });
+    // Per-question JSON, spliced into per-request question lists
+    private final Map<Long, byte[]> questionFragments = new ConcurrentHashMap<>();
+    
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+    private final AtomicLong sentBytes = new AtomicLong();
+    
+    public CompressedResponseCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+    
+    public Payload get(String key, long version, Supplier<Object> body) {
+        Payload payload = payloads.get(key);
+        if (payload == null || payload.version() != version) {
+            byte[] json = serialize(body.get());
+            payload = new Payload(version, json, gzip(json));
+            payloads.put(key, payload);
+        }
+        return payload;
+    }
+    
+    // Builds a JSON array from cached question fragments instead of serializing the list
+    public byte[] questionList(List<Question> questions) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(questions.size() * 256 + 2);
+        out.write('[');
+        for (int i = 0; i < questions.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            Question question = questions.get(i);
+            out.writeBytes(questionFragments.computeIfAbsent(question.getId(), id -> serialize(question)));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+    
+    public void evictQuestion(Long id) {
+        questionFragments.remove(id);
+    }
+    
+    public void recordSent(int uncompressed, int sent) {
+        uncompressedBytes.addAndGet(uncompressed);
+        sentBytes.addAndGet(sent);
+    }
+    
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        long before = uncompressedBytes.get();
+        long after = sentBytes.get();
+        stats.put("uncompressedBytes", before);
+        stats.put("sentBytes", after);
+        stats.put("bytesSaved", before - after);
+        return stats;
+    }
+    
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response", e);
+        }
+    }
+    
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    public record Payload(long version, byte[] json, byte[] gzip) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.quiz.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, time-expiring cache of responses keyed by client idempotency key.
+ * Retries of a request that is still running wait for the first attempt
+ * instead of executing it again. Each key is bound to a fingerprint of the
+ * request it was first used with, so it cannot replay another request's
+ * response.
+ */
+@Component
+public class IdempotencyCache {
+    
+    public static final int MAX_KEY_LENGTH = 128;
+    
+    private final int maxEntries;
+    private final long ttlNanos;
+    
+    // Insertion order equals expiry order, so expired entries are always at the head
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    
+    public IdempotencyCache(@Value("${quiz.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${quiz.idempotency.ttl:10m}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+    }
+    
+    /**
+     * Runs the action once per key and replays its result for retries within
+     * the TTL. Results rejected by {@code cacheable} are handed to requests
+     * already waiting on them but are not kept for later retries.
+     *
+     * @throws KeyReuseException if the key was first used with a different fingerprint
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, String fingerprint, Supplier<T> action, Predicate<T> cacheable) {
+        Entry entry;
+        boolean owner = false;
+        synchronized (this) {
+            long now = System.nanoTime();
+            evict(now);
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(fingerprint, new CompletableFuture<>(), now + ttlNanos);
+                entries.put(key, entry);
+                owner = true;
+                evict(now);
+            } else if (!entry.fingerprint.equals(fingerprint)) {
+                throw new KeyReuseException(key);
+            }
+        }
+        
+        if (!owner) {
+            try {
+                return (T) entry.response.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        
+        try {
+            T response = action.get();
+            if (!cacheable.test(response)) {
+                remove(key, entry);
+            }
+            entry.response.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            remove(key, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    private synchronized void remove(String key, Entry entry) {
+        entries.remove(key, entry);
+    }
+    
+    // Drops expired entries, then the oldest ones while over the size limit
+    private void evict(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.expiresAt - now > 0 && entries.size() <= maxEntries) {
+                break;
+            }
+            // Entries still running are kept so their retries wait instead of executing again
+            if (entry.response.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+    
+    private record Entry(String fingerprint, CompletableFuture<Object> response, long expiresAt) {
+    }
+    
+    public static class KeyReuseException extends RuntimeException {
+        public KeyReuseException(String key) {
+            super("Idempotency-Key " + key + " was already used for a different request");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.quiz.backend.service;
+
+import com.quiz.backend.model.Question;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over question text and options. Terms are kept
+ * in a sorted map so the last word of a query can be matched as a prefix.
+ * Writers are serialized; searches run without locking.
+ */
+@Component
+public class QuestionSearchIndex {
+    
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    
+    private final double duplicateThreshold;
+    
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    // All indexed terms per question, used for removal and prefix checks
+    private final Map<Long, Set<String>> documentTerms = new ConcurrentHashMap<>();
+    // Question text terms only, compared for near-duplicates
+    private final Map<Long, Set<String>> textTerms = new ConcurrentHashMap<>();
+    
+    public QuestionSearchIndex(@Value("${quiz.search.duplicate-threshold:0.8}") double duplicateThreshold) {
+        this.duplicateThreshold = duplicateThreshold;
+    }
+    
+    public synchronized void add(Question question) {
+        Set<String> text = tokenize(question.getQuestionText());
+        Set<String> terms = new HashSet<>(text);
+        if (question.getOptions() != null) {
+            question.getOptions().forEach(option -> terms.addAll(tokenize(option)));
+        }
+        for (String term : terms) {
+            postings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(question.getId());
+        }
+        documentTerms.put(question.getId(), terms);
+        textTerms.put(question.getId(), text);
+    }
+    
+    public synchronized void remove(Long id) {
+        Set<String> terms = documentTerms.remove(id);
+        textTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns up to {@code limit} ids of questions containing every word of
+     * the query. The last word matches as a prefix unless the query ends in
+     * a separator. Cost is bounded by the shortest posting list involved.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> words = new ArrayList<>(tokenize(query));
+        if (words.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        boolean prefixLast = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+        String prefix = prefixLast ? words.remove(words.size() - 1) : null;
+        
+        if (words.isEmpty()) {
+            Set<Long> matches = new LinkedHashSet<>();
+            for (Set<Long> ids : prefixRange(prefix).values()) {
+                for (Long id : ids) {
+                    matches.add(id);
+                    if (matches.size() >= limit) {
+                        return new ArrayList<>(matches);
+                    }
+                }
+            }
+            return new ArrayList<>(matches);
+        }
+        
+        List<Set<Long>> required = new ArrayList<>();
+        for (String word : words) {
+            Set<Long> ids = postings.get(word);
+            if (ids == null) {
+                return new ArrayList<>();
+            }
+            required.add(ids);
+        }
+        required.sort(Comparator.comparingInt(Set::size));
+        
+        List<Long> matches = new ArrayList<>();
+        for (Long id : required.get(0)) {
+            if (matchesAll(id, required) && (prefix == null || hasTermWithPrefix(id, prefix))) {
+                matches.add(id);
+                if (matches.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+    
+    /**
+     * Finds indexed questions whose text has a Jaccard similarity of at least
+     * the configured threshold with the given question's text. Only questions
+     * sharing one of the rarest terms are compared: any match must share at
+     * least {@code threshold * |terms|} terms, so it cannot miss all of them.
+     */
+    public List<Long> findNearDuplicates(Question question) {
+        Set<String> terms = tokenize(question.getQuestionText());
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> byRarity = new ArrayList<>(terms);
+        byRarity.sort(Comparator.comparingInt(term -> postings.getOrDefault(term, Set.of()).size()));
+        // The epsilon keeps products like 0.28 * 25 = 7.000000000000001 from rounding up a whole term
+        int probes = terms.size() - (int) Math.ceil(duplicateThreshold * terms.size() - 1e-9) + 1;
+        
+        Set<Long> candidates = new HashSet<>();
+        for (String term : byRarity.subList(0, Math.min(probes, byRarity.size()))) {
+            candidates.addAll(postings.getOrDefault(term, Set.of()));
+        }
+        candidates.remove(question.getId());
+        
+        List<Long> duplicates = new ArrayList<>();
+        for (Long id : candidates) {
+            Set<String> other = textTerms.get(id);
+            if (other != null && jaccard(terms, other) >= duplicateThreshold) {
+                duplicates.add(id);
+            }
+        }
+        Collections.sort(duplicates);
+        return duplicates;
+    }
+    
+    int termCount() {
+        return postings.size();
+    }
+    
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    private SortedMap<String, Set<Long>> prefixRange(String prefix) {
+        return postings.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+    
+    private static boolean matchesAll(Long id, List<Set<Long>> required) {
+        for (int i = 1; i < required.size(); i++) {
+            if (!required.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private boolean hasTermWithPrefix(Long id, String prefix) {
+        Set<String> terms = documentTerms.get(id);
+        if (terms == null) {
+            return false;
+        }
+        for (String term : terms) {
+            if (term.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static double jaccard(Set<String> a, Set<String> b) {
+        int shared = 0;
+        for (String term : a) {
+            if (b.contains(term)) {
+                shared++;
+            }
+        }
+        int union = a.size() + b.size() - shared;
+        return union == 0 ? 0 : (double) shared / union;
+    }
+}
\ No newline at end of file
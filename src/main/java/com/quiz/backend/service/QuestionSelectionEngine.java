@@ -0,0 +1,177 @@
+package com.quiz.backend.service;
+
+import com.quiz.backend.model.Question;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks quiz questions by weight instead of shuffling the whole category.
+ * Questions that have been served often are drawn less, questions with a
+ * correctness rate near 50% (the most informative ones) are drawn more, and
+ * questions a user saw recently are held back for that user. Only answers to
+ * questions actually served to the answering user count towards the
+ * correctness rate, once per serving.
+ */
+@Component
+public class QuestionSelectionEngine {
+    
+    // Exposures after which a question's weight has halved
+    private static final double EXPOSURE_HALF_LIFE = 20.0;
+    
+    private final int recentWindow;
+    private final int maxTrackedUsers;
+    
+    // One pool per category and one per category + difficulty
+    private final Map<String, QuestionSelector> pools = new ConcurrentHashMap<>();
+    private final Map<Long, QuestionStats> stats = new ConcurrentHashMap<>();
+    private final Map<String, UserHistory> histories;
+    
+    public QuestionSelectionEngine(@Value("${quiz.selection.recent-window:50}") int recentWindow,
+                                   @Value("${quiz.selection.max-tracked-users:10000}") int maxTrackedUsers) {
+        this.recentWindow = recentWindow;
+        this.maxTrackedUsers = maxTrackedUsers;
+        this.histories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UserHistory> eldest) {
+                return size() > QuestionSelectionEngine.this.maxTrackedUsers;
+            }
+        };
+    }
+    
+    public void onQuestionAdded(Question question) {
+        QuestionStats questionStats = new QuestionStats(question.getCategory(), question.getDifficulty());
+        stats.put(question.getId(), questionStats);
+        double weight = questionStats.weight();
+        pool(question.getCategory(), null).add(question.getId(), weight);
+        pool(question.getCategory(), question.getDifficulty()).add(question.getId(), weight);
+    }
+    
+    public void onQuestionDeleted(Question question) {
+        stats.remove(question.getId());
+        pool(question.getCategory(), null).remove(question.getId());
+        pool(question.getCategory(), question.getDifficulty()).remove(question.getId());
+    }
+    
+    public void onQuestionAnswered(String userEmail, Long id, boolean correct) {
+        QuestionStats questionStats = stats.get(id);
+        if (questionStats == null || userEmail == null || !takeUnanswered(userEmail, id)) {
+            return;
+        }
+        questionStats.attempts.incrementAndGet();
+        if (correct) {
+            questionStats.correct.incrementAndGet();
+        }
+        reweigh(id, questionStats);
+    }
+    
+    /**
+     * Draws up to {@code count} question ids from the category (and difficulty,
+     * if given); a null count draws the whole pool. Drawn questions count as
+     * exposed and, when a user is given, as recently seen by and awaiting an
+     * answer from that user.
+     */
+    public List<Long> select(String category, String difficulty, Integer count, String userEmail) {
+        QuestionSelector selector = pools.get(poolKey(category, difficulty));
+        if (selector == null) {
+            return new ArrayList<>();
+        }
+        int limit = count == null ? selector.size() : Math.max(count, 0);
+        Set<Long> avoid = userEmail == null ? Set.of() : recentFor(userEmail);
+        List<Long> drawn = selector.draw(limit, avoid, ThreadLocalRandom.current());
+        
+        for (Long id : drawn) {
+            QuestionStats questionStats = stats.get(id);
+            if (questionStats != null) {
+                questionStats.exposures.incrementAndGet();
+                reweigh(id, questionStats);
+            }
+        }
+        if (userEmail != null) {
+            markSeen(userEmail, drawn);
+        }
+        return drawn;
+    }
+    
+    double weightOf(Long id) {
+        QuestionStats questionStats = stats.get(id);
+        return questionStats == null ? 0 : questionStats.weight();
+    }
+    
+    private void reweigh(Long id, QuestionStats questionStats) {
+        double weight = questionStats.weight();
+        pool(questionStats.category, null).update(id, weight);
+        pool(questionStats.category, questionStats.difficulty).update(id, weight);
+    }
+    
+    private QuestionSelector pool(String category, String difficulty) {
+        return pools.computeIfAbsent(poolKey(category, difficulty), key -> new QuestionSelector());
+    }
+    
+    private static String poolKey(String category, String difficulty) {
+        String key = QuizShardRouter.keyOf(category);
+        return difficulty == null ? key : key + "|" + difficulty.toLowerCase(Locale.ROOT);
+    }
+    
+    private Set<Long> recentFor(String userEmail) {
+        synchronized (histories) {
+            UserHistory history = histories.get(userEmail.toLowerCase(Locale.ROOT));
+            return history == null ? Set.of() : new HashSet<>(history.recent);
+        }
+    }
+    
+    private void markSeen(String userEmail, List<Long> ids) {
+        synchronized (histories) {
+            UserHistory history = histories.computeIfAbsent(userEmail.toLowerCase(Locale.ROOT), e -> new UserHistory());
+            for (Long id : ids) {
+                history.recent.addLast(id);
+                if (history.recent.size() > recentWindow) {
+                    history.recent.removeFirst();
+                }
+                // Re-inserting moves the id to the newest end of the insertion order
+                history.unanswered.remove(id);
+                history.unanswered.add(id);
+                if (history.unanswered.size() > recentWindow) {
+                    history.unanswered.remove(history.unanswered.iterator().next());
+                }
+            }
+        }
+    }
+    
+    // True if the question was served to the user and this is the first answer since
+    private boolean takeUnanswered(String userEmail, Long id) {
+        synchronized (histories) {
+            UserHistory history = histories.get(userEmail.toLowerCase(Locale.ROOT));
+            return history != null && history.unanswered.remove(id);
+        }
+    }
+    
+    private static class UserHistory {
+        private final Deque<Long> recent = new ArrayDeque<>();
+        private final Set<Long> unanswered = new LinkedHashSet<>();
+    }
+    
+    private static class QuestionStats {
+        private final String category;
+        private final String difficulty;
+        private final AtomicInteger exposures = new AtomicInteger();
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final AtomicInteger correct = new AtomicInteger();
+        
+        QuestionStats(String category, String difficulty) {
+            this.category = category;
+            this.difficulty = difficulty;
+        }
+        
+        double weight() {
+            double exposureFactor = 1.0 / (1.0 + exposures.get() / EXPOSURE_HALF_LIFE);
+            // Laplace-smoothed correctness rate, peaks at 1.0 for p = 0.5 and bottoms out at 0.5
+            double p = (correct.get() + 1.0) / (attempts.get() + 2.0);
+            return exposureFactor * (0.5 + 2.0 * p * (1.0 - p));
+        }
+    }
+}
\ No newline at end of file
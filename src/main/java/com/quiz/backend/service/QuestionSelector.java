@@ -0,0 +1,161 @@
+package com.quiz.backend.service;
+
+import java.util.*;
+
+/**
+ * Weighted sampler over one pool of questions, backed by a Fenwick tree of
+ * weights. Inserts, deletes and weight changes cost O(log n); drawing N
+ * questions without replacement costs O(N log n).
+ */
+class QuestionSelector {
+    
+    private long[] ids = new long[16];
+    private double[] weights = new double[16];
+    private double[] tree = new double[17];
+    private int size;
+    
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    
+    synchronized void add(long id, double weight) {
+        if (slots.containsKey(id)) {
+            update(id, weight);
+            return;
+        }
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.pop();
+        } else {
+            if (size == ids.length) {
+                grow();
+            }
+            slot = size++;
+        }
+        ids[slot] = id;
+        slots.put(id, slot);
+        setWeight(slot, weight);
+    }
+    
+    synchronized void remove(long id) {
+        Integer slot = slots.remove(id);
+        if (slot != null) {
+            setWeight(slot, 0);
+            freeSlots.push(slot);
+        }
+    }
+    
+    synchronized void update(long id, double weight) {
+        Integer slot = slots.get(id);
+        if (slot != null) {
+            setWeight(slot, weight);
+        }
+    }
+    
+    synchronized int size() {
+        return slots.size();
+    }
+    
+    /**
+     * Draws up to {@code count} distinct ids in proportion to their weights.
+     * Ids in {@code avoid} are only drawn once everything else is exhausted.
+     */
+    synchronized List<Long> draw(int count, Set<Long> avoid, Random random) {
+        List<Long> drawn = new ArrayList<>(Math.min(count, slots.size()));
+        Map<Integer, Double> suspended = new HashMap<>();
+        
+        List<Integer> avoided = new ArrayList<>();
+        for (Long id : avoid) {
+            Integer slot = slots.get(id);
+            if (slot != null && weights[slot] > 0) {
+                avoided.add(slot);
+                suspend(slot, suspended);
+            }
+        }
+        
+        drawInto(drawn, count, suspended, random);
+        if (drawn.size() < count && !avoided.isEmpty()) {
+            // Not enough unseen questions left, fall back to recently seen ones
+            for (int slot : avoided) {
+                setWeight(slot, suspended.remove(slot));
+            }
+            drawInto(drawn, count, suspended, random);
+        }
+        
+        suspended.forEach(this::setWeight);
+        return drawn;
+    }
+    
+    private void drawInto(List<Long> drawn, int count, Map<Integer, Double> suspended, Random random) {
+        while (drawn.size() < count) {
+            double total = prefixSum(size);
+            if (total <= 0) {
+                return;
+            }
+            int slot = find(random.nextDouble() * total);
+            if (slot < 0) {
+                return;
+            }
+            drawn.add(ids[slot]);
+            suspend(slot, suspended);
+        }
+    }
+    
+    private void suspend(int slot, Map<Integer, Double> suspended) {
+        suspended.put(slot, weights[slot]);
+        setWeight(slot, 0);
+    }
+    
+    // Smallest slot whose cumulative weight exceeds target, or -1 if every weight is zero
+    private int find(double target) {
+        int position = 0;
+        for (int step = Integer.highestOneBit(ids.length); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= ids.length && tree[next] <= target) {
+                position = next;
+                target -= tree[next];
+            }
+        }
+        if (position < size && weights[position] > 0) {
+            return position;
+        }
+        // Rounding pushed the target past the last positive weight
+        for (int slot = size - 1; slot >= 0; slot--) {
+            if (weights[slot] > 0) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+    
+    private void setWeight(int slot, double weight) {
+        double delta = weight - weights[slot];
+        weights[slot] = weight;
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+    
+    // Total weight of the first {@code slots} slots
+    double prefixSum(int slots) {
+        double sum = 0;
+        for (int i = slots; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+    
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+        // Rebuild in O(n) so accumulated rounding error is also discarded
+        tree = new double[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            tree[i] += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -11,41 +11,51 @@ import java.util.stream.Collectors;
 @Service
 public class QuizService {
     
-    // In-Memory Storage
-    private final Map<Long, Question> questions = new HashMap<>();
-    private final List<QuizResult> results = new ArrayList<>();
+    // In-Memory Storage, partitioned by category
+    private final QuizShardRouter router;
+    private final QuestionSelectionEngine selectionEngine;
+    private final QuestionSearchIndex searchIndex;
     private final AtomicLong questionIdCounter = new AtomicLong(1);
     private final AtomicLong resultIdCounter = new AtomicLong(1);
+    private final AtomicLong questionsVersion = new AtomicLong();
     
     // Initialize with sample questions
-    public QuizService() {
+    public QuizService(QuizShardRouter router, QuestionSelectionEngine selectionEngine,
+                       QuestionSearchIndex searchIndex) {
+        this.router = router;
+        this.selectionEngine = selectionEngine;
+        this.searchIndex = searchIndex;
         initializeSampleQuestions();
     }
     
     // Question Operations
     public List<Question> getAllQuestions() {
-        return new ArrayList<>(questions.values());
+        List<Question> all = new ArrayList<>();
+        router.getShards().forEach(shard -> all.addAll(shard.getQuestions()));
+        return all;
     }
     
     public List<Question> getQuestionsByCategory(String category) {
-        List<Question> categoryQuestions = questions.values().stream()
-                .filter(q -> q.getCategory().equalsIgnoreCase(category))
-                .collect(Collectors.toList());
-        Collections.shuffle(categoryQuestions);
-        return categoryQuestions;
+        return getQuestionsByCategory(category, null, null);
+    }
+    
+    // Weighted draw of count questions (all when null), avoiding ones the user saw recently
+    public List<Question> getQuestionsByCategory(String category, Integer count, String userEmail) {
+        return toQuestions(selectionEngine.select(category, null, count, userEmail));
     }
     
     public List<Question> getQuestionsByCategoryAndDifficulty(String category, String difficulty) {
-        List<Question> filtered = questions.values().stream()
-                .filter(q -> q.getCategory().equalsIgnoreCase(category) && 
-                           q.getDifficulty().equalsIgnoreCase(difficulty))
-                .collect(Collectors.toList());
-        Collections.shuffle(filtered);
-        return filtered;
+        return getQuestionsByCategoryAndDifficulty(category, difficulty, null, null);
+    }
+    
+    public List<Question> getQuestionsByCategoryAndDifficulty(String category, String difficulty,
+                                                              Integer count, String userEmail) {
+        return toQuestions(selectionEngine.select(category, difficulty, count, userEmail));
     }
     
     public List<String> getAllCategories() {
-        return questions.values().stream()
+        return router.getShards().stream()
+                .flatMap(shard -> shard.getQuestions().stream())
                 .map(Question::getCategory)
                 .distinct()
                 .sorted()
@@ -54,23 +64,52 @@ public class QuizService {
     
     public Question addQuestion(Question question) {
         question.setId(questionIdCounter.getAndIncrement());
-        questions.put(question.getId(), question);
+        QuizShard shard = router.shardFor(question.getCategory());
+        shard.addQuestion(question);
+        router.indexQuestion(question.getId(), shard);
+        selectionEngine.onQuestionAdded(question);
+        searchIndex.add(question);
+        questionsVersion.incrementAndGet();
         return question;
     }
     
+    public List<Long> findNearDuplicates(Question question) {
+        return searchIndex.findNearDuplicates(question);
+    }
+    
+    public List<Question> searchQuestions(String query, int limit) {
+        return toQuestions(searchIndex.search(query, limit));
+    }
+    
     public Optional<Question> getQuestionById(Long id) {
-        return Optional.ofNullable(questions.get(id));
+        return router.findShardForQuestion(id).map(shard -> shard.getQuestion(id));
     }
     
     public void deleteQuestion(Long id) {
-        questions.remove(id);
+        router.findShardForQuestion(id).ifPresent(shard -> {
+            Question removed = shard.removeQuestion(id);
+            router.unindexQuestion(id);
+            searchIndex.remove(id);
+            if (removed != null) {
+                selectionEngine.onQuestionDeleted(removed);
+            }
+            questionsVersion.incrementAndGet();
+        });
+    }
+    
+    // Changes whenever a question is added or deleted
+    public long getQuestionsVersion() {
+        return questionsVersion.get();
     }
     
     // Score Calculation
     public int calculateScore(List<Integer> userAnswers, List<Long> questionIds) {
+        if (userAnswers == null || questionIds == null || userAnswers.size() != questionIds.size()) {
+            throw new IllegalArgumentException("userAnswers and questionIds must have the same length");
+        }
         int score = 0;
         for (int i = 0; i < questionIds.size(); i++) {
-            Question question = questions.get(questionIds.get(i));
+            Question question = getQuestionById(questionIds.get(i)).orElse(null);
             if (question != null && question.getCorrectAnswer() == userAnswers.get(i)) {
                 score++;
             }
@@ -78,39 +117,83 @@ public class QuizService {
         return score;
     }
     
+    // Feeds a saved submission into question selection; call only once it has been validated and stored
+    public void recordAnswers(String userEmail, List<Long> questionIds, List<Integer> userAnswers) {
+        for (int i = 0; i < questionIds.size(); i++) {
+            Question question = getQuestionById(questionIds.get(i)).orElse(null);
+            if (question != null) {
+                selectionEngine.onQuestionAnswered(userEmail, question.getId(),
+                        question.getCorrectAnswer() == userAnswers.get(i));
+            }
+        }
+    }
+    
     // Quiz Result Operations
+    public boolean isKnownCategory(String category) {
+        return router.findShardWithCategory(category).isPresent();
+    }
+    
+    // Results never create shards, so clients cannot grow state with made-up categories
     public QuizResult saveResult(QuizResult result) {
+        QuizShard shard = router.findShardWithCategory(result.getCategory())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown category: " + result.getCategory()));
         result.setId(resultIdCounter.getAndIncrement());
-        results.add(result);
-        return result;
+        return shard.addResult(result);
     }
     
+    // Merges the per-shard top-K lists instead of sorting every result
     public List<QuizResult> getLeaderboard() {
-        return results.stream()
-                .sorted(Comparator.comparingInt(QuizResult::getScore).reversed()
-                        .thenComparing(QuizResult::getCompletedAt).reversed())
-                .limit(10)
+        return router.getShards().stream()
+                .flatMap(shard -> shard.getLeaderboards().stream())
+                .flatMap(List::stream)
+                .sorted(QuizShard.LEADERBOARD_ORDER)
+                .limit(QuizShard.LEADERBOARD_SIZE)
                 .collect(Collectors.toList());
     }
     
+    // Leaderboards outlive the category's questions, so this checks the shard's top list itself
+    public boolean hasLeaderboard(String category) {
+        return router.findShard(category)
+                .map(shard -> !shard.getLeaderboard(category).isEmpty())
+                .orElse(false);
+    }
+    
     public List<QuizResult> getLeaderboardByCategory(String category) {
-        return results.stream()
-                .filter(r -> r.getCategory().equalsIgnoreCase(category))
-                .sorted(Comparator.comparingInt(QuizResult::getScore).reversed()
-                        .thenComparing(QuizResult::getCompletedAt).reversed())
-                .limit(10)
-                .collect(Collectors.toList());
+        return router.findShard(category)
+                .map(shard -> new ArrayList<>(shard.getLeaderboard(category)))
+                .orElseGet(ArrayList::new);
+    }
+    
+    // Shard versions only grow, so their sum changes whenever any leaderboard does
+    public long getLeaderboardVersion() {
+        return router.getShards().stream().mapToLong(QuizShard::getLeaderboardVersion).sum();
+    }
+    
+    public long getLeaderboardVersion(String category) {
+        return router.findShard(category).map(QuizShard::getLeaderboardVersion).orElse(0L);
     }
     
     public List<QuizResult> getUserResults(String userEmail) {
-        return results.stream()
+        return router.getShards().stream()
+                .flatMap(shard -> shard.getResults().stream())
                 .filter(r -> r.getUserEmail().equalsIgnoreCase(userEmail))
                 .sorted(Comparator.comparing(QuizResult::getCompletedAt).reversed())
                 .collect(Collectors.toList());
     }
     
     public List<QuizResult> getAllResults() {
-        return new ArrayList<>(results);
+        return router.getShards().stream()
+                .flatMap(shard -> shard.getResults().stream())
+                .sorted(Comparator.comparing(QuizResult::getId))
+                .collect(Collectors.toList());
+    }
+    
+    private List<Question> toQuestions(List<Long> ids) {
+        List<Question> selected = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            getQuestionById(id).ifPresent(selected::add);
+        }
+        return selected;
     }
     
     // Initialize Sample Questions
@@ -454,6 +537,6 @@ public class QuizService {
                 Arrays.asList("Niagara Falls", "Victoria Falls", "Angel Falls", "Iguazu Falls"),
                 2, "Geography", "Hard"));
         
-        System.out.println("✅ " + questions.size() + " sample questions loaded successfully!");
+        System.out.println("✅ " + getAllQuestions().size() + " sample questions loaded successfully!");
     }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.quiz.backend.service;
+
+import com.quiz.backend.model.Question;
+import com.quiz.backend.model.QuizResult;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * One partition of the quiz state. All mutations run on the single-threaded
+ * writer the router assigned to the shard, so readers never contend with
+ * each other and only ever see fully applied writes.
+ */
+public class QuizShard {
+    
+    static final int LEADERBOARD_SIZE = 10;
+    
+    // Highest score first, earlier completion breaks ties
+    static final Comparator<QuizResult> LEADERBOARD_ORDER =
+            Comparator.comparingInt(QuizResult::getScore).reversed()
+                    .thenComparing(QuizResult::getCompletedAt);
+    
+    private final String key;
+    private final ExecutorService writer;
+    
+    private final Map<Long, Question> questions = new ConcurrentHashMap<>();
+    // Number of questions per lower-cased category held by this shard
+    private final Map<String, Integer> categoryCounts = new ConcurrentHashMap<>();
+    private final Queue<QuizResult> results = new ConcurrentLinkedQueue<>();
+    // Top-K per category, rebuilt by the writer and published as immutable lists
+    private final Map<String, List<QuizResult>> leaderboards = new ConcurrentHashMap<>();
+    private final AtomicLong leaderboardVersion = new AtomicLong();
+    
+    public QuizShard(String key, ExecutorService writer) {
+        this.key = key;
+        this.writer = writer;
+    }
+    
+    public String getKey() {
+        return key;
+    }
+    
+    // Question Operations
+    public Collection<Question> getQuestions() {
+        return questions.values();
+    }
+    
+    public Question getQuestion(Long id) {
+        return questions.get(id);
+    }
+    
+    public boolean hasCategory(String category) {
+        return categoryCounts.containsKey(QuizShardRouter.keyOf(category));
+    }
+    
+    public Question addQuestion(Question question) {
+        return write(() -> {
+            questions.put(question.getId(), question);
+            categoryCounts.merge(QuizShardRouter.keyOf(question.getCategory()), 1, Integer::sum);
+            return question;
+        });
+    }
+    
+    public Question removeQuestion(Long id) {
+        return write(() -> {
+            Question removed = questions.remove(id);
+            if (removed != null) {
+                categoryCounts.computeIfPresent(QuizShardRouter.keyOf(removed.getCategory()),
+                        (category, count) -> count > 1 ? count - 1 : null);
+            }
+            return removed;
+        });
+    }
+    
+    // Quiz Result Operations
+    public Collection<QuizResult> getResults() {
+        return Collections.unmodifiableCollection(results);
+    }
+    
+    public QuizResult addResult(QuizResult result) {
+        return write(() -> {
+            results.add(result);
+            updateLeaderboard(result);
+            return result;
+        });
+    }
+    
+    // Results are appended in completion order, so the oldest sit at the head
+    public List<QuizResult> getResultsCompletedBefore(LocalDateTime cutoff) {
+        List<QuizResult> expired = new ArrayList<>();
+        for (QuizResult result : results) {
+            if (!result.getCompletedAt().isBefore(cutoff)) {
+                break;
+            }
+            expired.add(result);
+        }
+        return expired;
+    }
+    
+    public void removeOldestResults(int count) {
+        write(() -> {
+            for (int i = 0; i < count; i++) {
+                results.poll();
+            }
+            return null;
+        });
+    }
+    
+    public List<QuizResult> getLeaderboard(String category) {
+        return leaderboards.getOrDefault(QuizShardRouter.keyOf(category), List.of());
+    }
+    
+    public Collection<List<QuizResult>> getLeaderboards() {
+        return leaderboards.values();
+    }
+    
+    // Moves only when one of the shard's top-K lists actually changes
+    public long getLeaderboardVersion() {
+        return leaderboardVersion.get();
+    }
+    
+    private void updateLeaderboard(QuizResult result) {
+        String category = QuizShardRouter.keyOf(result.getCategory());
+        List<QuizResult> current = leaderboards.getOrDefault(category, List.of());
+        if (current.size() >= LEADERBOARD_SIZE
+                && LEADERBOARD_ORDER.compare(result, current.get(current.size() - 1)) >= 0) {
+            return;
+        }
+        List<QuizResult> updated = new ArrayList<>(current);
+        updated.add(result);
+        updated.sort(LEADERBOARD_ORDER);
+        if (updated.size() > LEADERBOARD_SIZE) {
+            updated.remove(updated.size() - 1);
+        }
+        leaderboards.put(category, List.copyOf(updated));
+        leaderboardVersion.incrementAndGet();
+    }
+    
+    private <T> T write(Supplier<T> mutation) {
+        try {
+            return CompletableFuture.supplyAsync(mutation, writer).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
\ No newline at end of file
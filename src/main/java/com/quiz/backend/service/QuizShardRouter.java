@@ -0,0 +1,89 @@
+package com.quiz.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Routes categories to their {@link QuizShard}. With partitioning disabled
+ * every category maps to one shared shard, which behaves like the original
+ * single-map service. Shards share a fixed set of single-threaded writers,
+ * picked by key hash, so the thread count does not grow with categories.
+ */
+@Component
+public class QuizShardRouter {
+    
+    private static final String DEFAULT_SHARD = "";
+    
+    private final boolean partitioned;
+    private final ExecutorService[] writers;
+    private final Map<String, QuizShard> shards = new ConcurrentHashMap<>();
+    private final Map<Long, QuizShard> questionIndex = new ConcurrentHashMap<>();
+    
+    public QuizShardRouter(@Value("${quiz.partitioning.enabled:true}") boolean partitioned,
+                           @Value("${quiz.partitioning.writer-threads:4}") int writerThreads) {
+        this.partitioned = partitioned;
+        this.writers = new ExecutorService[partitioned ? Math.max(writerThreads, 1) : 1];
+        for (int i = 0; i < writers.length; i++) {
+            String name = "quiz-shard-writer-" + i;
+            writers[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+    
+    static String keyOf(String category) {
+        return category == null ? DEFAULT_SHARD : category.toLowerCase(Locale.ROOT);
+    }
+    
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+    
+    // Returns the shard for a category, creating it on first write. Only
+    // question writes may create shards; results go through findShard.
+    public QuizShard shardFor(String category) {
+        String key = partitioned ? keyOf(category) : DEFAULT_SHARD;
+        return shards.computeIfAbsent(key, k -> new QuizShard(k, writers[Math.floorMod(k.hashCode(), writers.length)]));
+    }
+    
+    // Returns the shard for a category without creating one on reads
+    public Optional<QuizShard> findShard(String category) {
+        return Optional.ofNullable(shards.get(partitioned ? keyOf(category) : DEFAULT_SHARD));
+    }
+    
+    // A category is known while at least one of its questions exists
+    public Optional<QuizShard> findShardWithCategory(String category) {
+        return findShard(category).filter(shard -> shard.hasCategory(category));
+    }
+    
+    public Optional<QuizShard> findShardForQuestion(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(questionIndex.get(id));
+    }
+    
+    public Collection<QuizShard> getShards() {
+        return shards.values();
+    }
+    
+    void indexQuestion(Long id, QuizShard shard) {
+        questionIndex.put(id, shard);
+    }
+    
+    void unindexQuestion(Long id) {
+        questionIndex.remove(id);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService writer : writers) {
+            writer.shutdown();
+        }
+    }
+}
\ No newline at end of file
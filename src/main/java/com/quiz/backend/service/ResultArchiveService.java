@@ -0,0 +1,317 @@
+package com.quiz.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quiz.backend.model.QuizResult;
+import com.quiz.backend.model.ResultAggregate;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves results older than the retention window out of memory into gzipped
+ * NDJSON files and keeps per category/difficulty aggregates of everything
+ * archived. Each compaction run writes one segment file; segments of past
+ * days are merged into one file per day, and days of past months into one
+ * file per month, so the archive holds a bounded number of files per month.
+ * The aggregates are snapshotted next to the archive so startup only reads
+ * files written after the snapshot.
+ */
+@Service
+public class ResultArchiveService {
+    
+    private static final String ARCHIVE_PREFIX = "results-";
+    private static final String ARCHIVE_SUFFIX = ".ndjson.gz";
+    private static final String SNAPSHOT_FILE = "aggregates.json";
+    // Archive names sort chronologically, and a month or day file sorts before the files it replaced
+    private static final DateTimeFormatter SEGMENT_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final int DAY_LENGTH = 8;
+    private static final int MONTH_LENGTH = 6;
+    
+    private final QuizShardRouter router;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration window;
+    private final Path archiveDir;
+    
+    private final Map<String, ResultAggregate> aggregates = new ConcurrentHashMap<>();
+    private final AtomicLong archivedCount = new AtomicLong();
+    // Streams hold the read lock so merges never delete a file mid-download
+    private final ReadWriteLock archiveLock = new ReentrantReadWriteLock();
+    
+    public ResultArchiveService(QuizShardRouter router, ObjectMapper objectMapper,
+                                @Value("${quiz.retention.enabled:true}") boolean enabled,
+                                @Value("${quiz.retention.window:30d}") Duration window,
+                                @Value("${quiz.retention.archive-dir:data/archive}") String archiveDir) {
+        this.router = router;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.window = window;
+        this.archiveDir = Paths.get(archiveDir);
+    }
+    
+    // Restore the roll-ups from the last snapshot plus any archive written after it
+    @PostConstruct
+    public synchronized void loadAggregates() throws IOException {
+        if (!Files.isDirectory(archiveDir)) {
+            return;
+        }
+        removeMergedFiles();
+        String through = "";
+        Path snapshotFile = archiveDir.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshotFile)) {
+            AggregateSnapshot snapshot = objectMapper.readValue(snapshotFile.toFile(), AggregateSnapshot.class);
+            through = snapshot.through();
+            for (ResultAggregate aggregate : snapshot.aggregates()) {
+                aggregates.put(aggregateKey(aggregate.getCategory(), aggregate.getDifficulty()), aggregate);
+                archivedCount.addAndGet(aggregate.getAttempts());
+            }
+        }
+        
+        String covered = through;
+        List<Path> newer = archiveFiles().stream()
+                .filter(file -> periodOf(file).compareTo(covered) > 0)
+                .toList();
+        if (!newer.isEmpty()) {
+            readFiles(newer, result -> true, (result, line) -> addToAggregates(result));
+            writeSnapshot(periodOf(newer.get(newer.size() - 1)));
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${quiz.retention.compaction-interval:PT1H}",
+               initialDelayString = "${quiz.retention.compaction-interval:PT1H}")
+    public void scheduledCompaction() throws IOException {
+        if (enabled) {
+            compact(LocalDateTime.now().minus(window));
+        }
+    }
+    
+    /**
+     * Archives every result completed before the cutoff, merges archive files
+     * of closed days and months, and returns how many results were moved.
+     * Results are only dropped from memory once the archive file has been
+     * fully written.
+     */
+    public synchronized int compact(LocalDateTime cutoff) throws IOException {
+        int total = archiveExpired(cutoff);
+        mergeClosedPeriods(LocalDate.now());
+        return total;
+    }
+    
+    /**
+     * Streams archived results matching both filters to the output as NDJSON,
+     * oldest first, without loading whole files into memory. A null filter
+     * matches everything; both compare without regard to case.
+     */
+    public void streamArchive(String userEmail, String category, OutputStream out) throws IOException {
+        Predicate<QuizResult> filter = result -> (userEmail == null || userEmail.equalsIgnoreCase(result.getUserEmail()))
+                && (category == null || category.equalsIgnoreCase(result.getCategory()));
+        byte[] newline = {'\n'};
+        archiveLock.readLock().lock();
+        try {
+            readFiles(archiveFiles(), filter, (result, line) -> {
+                out.write(line.getBytes(StandardCharsets.UTF_8));
+                out.write(newline);
+            });
+        } finally {
+            archiveLock.readLock().unlock();
+        }
+        out.flush();
+    }
+    
+    public List<ResultAggregate> getAggregates() {
+        return aggregates.values().stream()
+                .sorted(Comparator.comparing(ResultAggregate::getCategory, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                        .thenComparing(ResultAggregate::getDifficulty, Comparator.nullsFirst(Comparator.<String>naturalOrder())))
+                .toList();
+    }
+    
+    public long getArchivedCount() {
+        return archivedCount.get();
+    }
+    
+    private int archiveExpired(LocalDateTime cutoff) throws IOException {
+        Map<QuizShard, List<QuizResult>> expired = new LinkedHashMap<>();
+        int total = 0;
+        for (QuizShard shard : router.getShards()) {
+            List<QuizResult> shardExpired = shard.getResultsCompletedBefore(cutoff);
+            if (!shardExpired.isEmpty()) {
+                expired.put(shard, shardExpired);
+                total += shardExpired.size();
+            }
+        }
+        if (total == 0) {
+            return 0;
+        }
+        
+        Files.createDirectories(archiveDir);
+        String period = LocalDateTime.now().format(SEGMENT_FORMAT);
+        Path target = archiveFile(period);
+        Path temp = archiveDir.resolve(target.getFileName() + ".tmp");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8))) {
+            for (List<QuizResult> shardExpired : expired.values()) {
+                for (QuizResult result : shardExpired) {
+                    writer.write(objectMapper.writeValueAsString(result));
+                    writer.write('\n');
+                }
+            }
+        }
+        // Readers only ever see complete archive files
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        
+        expired.forEach((shard, shardExpired) -> {
+            shard.removeOldestResults(shardExpired.size());
+            shardExpired.forEach(this::addToAggregates);
+        });
+        writeSnapshot(period);
+        return total;
+    }
+    
+    /**
+     * Merges segment files of days before {@code today} into one file per day,
+     * then files of months before the current one into one file per month.
+     * Only closed periods are merged, so no new file can appear in them later.
+     */
+    synchronized void mergeClosedPeriods(LocalDate today) throws IOException {
+        if (!Files.isDirectory(archiveDir)) {
+            return;
+        }
+        archiveLock.writeLock().lock();
+        try {
+            removeMergedFiles();
+            mergeInto(DAY_LENGTH, today.format(DAY_FORMAT));
+            mergeInto(MONTH_LENGTH, today.format(MONTH_FORMAT));
+        } finally {
+            archiveLock.writeLock().unlock();
+        }
+    }
+    
+    // Merges every finer file whose period, cut to the given length, is before the open one
+    private void mergeInto(int length, String open) throws IOException {
+        Map<String, List<Path>> groups = new TreeMap<>();
+        for (Path file : archiveFiles()) {
+            String period = periodOf(file);
+            if (period.length() > length && period.substring(0, length).compareTo(open) < 0) {
+                groups.computeIfAbsent(period.substring(0, length), p -> new ArrayList<>()).add(file);
+            }
+        }
+        for (Map.Entry<String, List<Path>> group : groups.entrySet()) {
+            Path target = archiveFile(group.getKey());
+            Path temp = archiveDir.resolve(target.getFileName() + ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                for (Path file : group.getValue()) {
+                    try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                        in.transferTo(out);
+                    }
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            for (Path file : group.getValue()) {
+                Files.delete(file);
+            }
+        }
+    }
+    
+    // Deletes files a merge already copied but was interrupted before removing
+    private void removeMergedFiles() throws IOException {
+        List<Path> files = archiveFiles();
+        Set<String> periods = new HashSet<>();
+        files.forEach(file -> periods.add(periodOf(file)));
+        for (Path file : files) {
+            String period = periodOf(file);
+            if ((period.length() > DAY_LENGTH && periods.contains(period.substring(0, DAY_LENGTH)))
+                    || (period.length() > MONTH_LENGTH && periods.contains(period.substring(0, MONTH_LENGTH)))) {
+                Files.delete(file);
+            }
+        }
+    }
+    
+    private void writeSnapshot(String through) throws IOException {
+        Path target = archiveDir.resolve(SNAPSHOT_FILE);
+        Path temp = archiveDir.resolve(SNAPSHOT_FILE + ".tmp");
+        objectMapper.writeValue(temp.toFile(), new AggregateSnapshot(through, new ArrayList<>(aggregates.values())));
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    // Categories match without case everywhere else, so the roll-ups do too
+    private void addToAggregates(QuizResult result) {
+        aggregates.compute(aggregateKey(result.getCategory(), result.getDifficulty()), (k, aggregate) -> (aggregate == null
+                ? new ResultAggregate(result.getCategory(), result.getDifficulty())
+                : aggregate).add(result));
+        archivedCount.incrementAndGet();
+    }
+    
+    private static String aggregateKey(String category, String difficulty) {
+        return QuizShardRouter.keyOf(category) + "|" + (difficulty == null ? "" : difficulty.toLowerCase(Locale.ROOT));
+    }
+    
+    private Path archiveFile(String period) {
+        return archiveDir.resolve(ARCHIVE_PREFIX + period + ARCHIVE_SUFFIX);
+    }
+    
+    private static String periodOf(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(ARCHIVE_PREFIX.length(), name.length() - ARCHIVE_SUFFIX.length());
+    }
+    
+    private List<Path> archiveFiles() throws IOException {
+        if (!Files.isDirectory(archiveDir)) {
+            return List.of();
+        }
+        try (Stream<Path> listing = Files.list(archiveDir)) {
+            return listing
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(ARCHIVE_PREFIX) && name.endsWith(ARCHIVE_SUFFIX);
+                    })
+                    .sorted(Comparator.comparing(ResultArchiveService::periodOf))
+                    .toList();
+        }
+    }
+    
+    private void readFiles(List<Path> files, Predicate<QuizResult> filter, ArchiveLineHandler handler) throws IOException {
+        for (Path file : files) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    QuizResult result = objectMapper.readValue(line, QuizResult.class);
+                    if (filter.test(result)) {
+                        handler.accept(result, line);
+                    }
+                }
+            }
+        }
+    }
+    
+    record AggregateSnapshot(String through, List<ResultAggregate> aggregates) {
+    }
+    
+    @FunctionalInterface
+    private interface ArchiveLineHandler {
+        void accept(QuizResult result, String line) throws IOException;
+    }
+}
\ No newline at end of file
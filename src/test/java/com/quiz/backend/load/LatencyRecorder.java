@@ -0,0 +1,59 @@
+package com.quiz.backend.load;
+
+import java.util.*;
+
+/**
+ * Collects per-endpoint request latencies and error counts for a load run
+ * and turns them into percentile summaries.
+ */
+class LatencyRecorder {
+    
+    private final Map<String, Samples> samples = new TreeMap<>();
+    
+    synchronized void record(String endpoint, long latencyNanos, boolean success) {
+        Samples endpointSamples = samples.computeIfAbsent(endpoint, e -> new Samples());
+        endpointSamples.add(latencyNanos);
+        if (!success) {
+            endpointSamples.errors++;
+        }
+    }
+    
+    synchronized List<EndpointStats> summarize(double elapsedSeconds) {
+        List<EndpointStats> stats = new ArrayList<>();
+        samples.forEach((endpoint, endpointSamples) -> {
+            long[] sorted = Arrays.copyOf(endpointSamples.latencies, endpointSamples.count);
+            Arrays.sort(sorted);
+            stats.add(new EndpointStats(endpoint, sorted.length, endpointSamples.errors,
+                    sorted.length / elapsedSeconds,
+                    percentileMillis(sorted, 0.50),
+                    percentileMillis(sorted, 0.99),
+                    percentileMillis(sorted, 0.999)));
+        });
+        return stats;
+    }
+    
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+    
+    record EndpointStats(String endpoint, int requests, int errors, double throughput,
+                         double p50Millis, double p99Millis, double p999Millis) {
+    }
+    
+    private static class Samples {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+        
+        void add(long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,232 @@
+package com.quiz.backend.load;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Drives an instance at the given base URL with a mix of quiz starts,
+ * submission bursts, retried submissions and leaderboard polling, prints
+ * per-endpoint latency percentiles and reports configured SLOs that were
+ * exceeded. Requests advertise gzip so cached responses are served
+ * pre-compressed, and some submissions are resent with the same
+ * {@code Idempotency-Key} to exercise the replay path.
+ *
+ * <p>Tunable through system properties: {@code quiz.load.users},
+ * {@code quiz.load.duration} and {@code quiz.load.warmup} (seconds),
+ * {@code quiz.load.replay-ratio}, and the SLOs {@code quiz.load.slo.p50-ms},
+ * {@code quiz.load.slo.p99-ms}, {@code quiz.load.slo.p999-ms},
+ * {@code quiz.load.slo.max-error-rate} and
+ * {@code quiz.load.slo.min-throughput} (requests per second, all endpoints).
+ */
+class LoadHarness {
+    
+    private static final List<String> DIFFICULTIES = List.of("Easy", "Medium", "Hard");
+    
+    private final String baseUrl;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final double replayRatio = Double.parseDouble(System.getProperty("quiz.load.replay-ratio", "0.2"));
+    private List<String> categories;
+    private volatile long measureFrom;
+    
+    LoadHarness(String baseUrl) {
+        this.baseUrl = baseUrl + "/api/quiz";
+    }
+    
+    // Runs the configured load and returns the SLO violations, empty when all were met
+    List<String> run() throws Exception {
+        categories = objectMapper.readValue(
+                body(send(request("/categories").GET().build())),
+                new TypeReference<List<String>>() {});
+        
+        int users = Integer.getInteger("quiz.load.users", 16);
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.getLong("quiz.load.warmup", 5));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.getLong("quiz.load.duration", 30));
+        
+        long start = System.nanoTime();
+        measureFrom = start + warmupNanos;
+        long stopAt = measureFrom + durationNanos;
+        
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        List<Future<?>> virtualUsers = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            int userId = i;
+            virtualUsers.add(pool.submit(() -> runVirtualUser(userId, stopAt)));
+        }
+        for (Future<?> virtualUser : virtualUsers) {
+            virtualUser.get();
+        }
+        pool.shutdown();
+        
+        double elapsedSeconds = durationNanos / 1_000_000_000.0;
+        List<LatencyRecorder.EndpointStats> stats = recorder.summarize(elapsedSeconds);
+        printReport(stats);
+        return checkSlos(stats, elapsedSeconds);
+    }
+    
+    private void runVirtualUser(int userId, long stopAt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String userEmail = "load-user-" + userId + "@example.com";
+        List<Map<String, Object>> lastQuiz = List.of();
+        String lastCategory = categories.get(0);
+        String lastDifficulty = DIFFICULTIES.get(0);
+        
+        while (System.nanoTime() < stopAt) {
+            double action = random.nextDouble();
+            try {
+                if (action < 0.45 || lastQuiz.isEmpty()) {
+                    lastCategory = categories.get(random.nextInt(categories.size()));
+                    lastDifficulty = DIFFICULTIES.get(random.nextInt(DIFFICULTIES.size()));
+                    String body = timed("GET /questions/category/{category}/difficulty/{difficulty}",
+                            request("/questions/category/" + lastCategory + "/difficulty/" + lastDifficulty)
+                                    .GET().build());
+                    if (body != null) {
+                        lastQuiz = objectMapper.readValue(body, new TypeReference<List<Map<String, Object>>>() {});
+                    }
+                } else if (action < 0.75) {
+                    int burst = 1 + random.nextInt(3);
+                    for (int i = 0; i < burst; i++) {
+                        byte[] submission = objectMapper.writeValueAsBytes(
+                                buildSubmission(userEmail, lastCategory, lastDifficulty, lastQuiz, random));
+                        String idempotencyKey = UUID.randomUUID().toString();
+                        timed("POST /submit", submitRequest(idempotencyKey, submission));
+                        if (random.nextDouble() < replayRatio) {
+                            // Same key and body, as a client retrying after a lost response would send
+                            timed("POST /submit (replay)", submitRequest(idempotencyKey, submission));
+                        }
+                    }
+                } else if (action < 0.90) {
+                    timed("GET /leaderboard", request("/leaderboard").GET().build());
+                } else {
+                    timed("GET /leaderboard/category/{category}",
+                            request("/leaderboard/category/" + lastCategory).GET().build());
+                }
+            } catch (Exception e) {
+                // Failed requests are already counted as errors by timed()
+            }
+        }
+    }
+    
+    private Map<String, Object> buildSubmission(String userEmail, String category, String difficulty,
+                                                List<Map<String, Object>> quiz, Random random) {
+        List<Integer> questionIds = new ArrayList<>();
+        List<Integer> userAnswers = new ArrayList<>();
+        for (Map<String, Object> question : quiz) {
+            questionIds.add(((Number) question.get("id")).intValue());
+            userAnswers.add(random.nextInt(4));
+        }
+        Map<String, Object> submission = new HashMap<>();
+        submission.put("userName", userEmail.substring(0, userEmail.indexOf('@')));
+        submission.put("userEmail", userEmail);
+        submission.put("category", category);
+        submission.put("difficulty", difficulty);
+        submission.put("timeTaken", 30 + random.nextInt(300));
+        submission.put("userAnswers", userAnswers);
+        submission.put("questionIds", questionIds);
+        return submission;
+    }
+    
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept-Encoding", "gzip");
+    }
+    
+    private HttpRequest submitRequest(String idempotencyKey, byte[] submission) {
+        return request("/submit")
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", idempotencyKey)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(submission))
+                .build();
+    }
+    
+    // Sends the request and records its latency, including decompression, once the warmup has passed
+    private String timed(String endpoint, HttpRequest request) throws Exception {
+        long begin = System.nanoTime();
+        boolean success = false;
+        try {
+            HttpResponse<byte[]> response = send(request);
+            success = response.statusCode() < 400;
+            return success ? body(response) : null;
+        } finally {
+            long end = System.nanoTime();
+            if (begin >= measureFrom) {
+                recorder.record(endpoint, end - begin, success);
+            }
+        }
+    }
+    
+    private HttpResponse<byte[]> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+    
+    private static String body(HttpResponse<byte[]> response) throws IOException {
+        boolean gzipped = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        if (!gzipped) {
+            return new String(response.body(), StandardCharsets.UTF_8);
+        }
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+    
+    private void printReport(List<LatencyRecorder.EndpointStats> stats) {
+        System.out.printf("%n%-58s %9s %7s %10s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms");
+        for (LatencyRecorder.EndpointStats endpoint : stats) {
+            System.out.printf("%-58s %9d %7d %10.1f %9.2f %9.2f %9.2f%n",
+                    endpoint.endpoint(), endpoint.requests(), endpoint.errors(), endpoint.throughput(),
+                    endpoint.p50Millis(), endpoint.p99Millis(), endpoint.p999Millis());
+        }
+    }
+    
+    private List<String> checkSlos(List<LatencyRecorder.EndpointStats> stats, double elapsedSeconds) {
+        double p50Slo = Double.parseDouble(System.getProperty("quiz.load.slo.p50-ms", "20"));
+        double p99Slo = Double.parseDouble(System.getProperty("quiz.load.slo.p99-ms", "100"));
+        double p999Slo = Double.parseDouble(System.getProperty("quiz.load.slo.p999-ms", "250"));
+        double maxErrorRate = Double.parseDouble(System.getProperty("quiz.load.slo.max-error-rate", "0.01"));
+        double minThroughput = Double.parseDouble(System.getProperty("quiz.load.slo.min-throughput", "0"));
+        
+        List<String> violations = new ArrayList<>();
+        long totalRequests = 0;
+        for (LatencyRecorder.EndpointStats endpoint : stats) {
+            totalRequests += endpoint.requests();
+            if (endpoint.p50Millis() > p50Slo) {
+                violations.add(String.format("%s p50 %.2f ms > %.2f ms", endpoint.endpoint(), endpoint.p50Millis(), p50Slo));
+            }
+            if (endpoint.p99Millis() > p99Slo) {
+                violations.add(String.format("%s p99 %.2f ms > %.2f ms", endpoint.endpoint(), endpoint.p99Millis(), p99Slo));
+            }
+            if (endpoint.p999Millis() > p999Slo) {
+                violations.add(String.format("%s p999 %.2f ms > %.2f ms", endpoint.endpoint(), endpoint.p999Millis(), p999Slo));
+            }
+            double errorRate = endpoint.requests() == 0 ? 0 : (double) endpoint.errors() / endpoint.requests();
+            if (errorRate > maxErrorRate) {
+                violations.add(String.format("%s error rate %.4f > %.4f", endpoint.endpoint(), errorRate, maxErrorRate));
+            }
+        }
+        double throughput = totalRequests / elapsedSeconds;
+        if (throughput < minThroughput) {
+            violations.add(String.format("throughput %.1f req/s < %.1f req/s", throughput, minThroughput));
+        }
+        return violations;
+    }
+}
\ No newline at end of file
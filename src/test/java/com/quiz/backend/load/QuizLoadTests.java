@@ -0,0 +1,33 @@
+package com.quiz.backend.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link LoadHarness} against an embedded server started on a
+ * random port. Skipped unless run through the {@code load-test} Maven
+ * profile, and when {@code quiz.load.base-url} points at an external
+ * instance, which {@link RemoteQuizLoadTests} drives instead.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "quiz.retention.enabled=false")
+@EnabledIfSystemProperty(named = "quiz.load.enabled", matches = "true")
+@DisabledIfSystemProperty(named = "quiz.load.base-url", matches = ".+")
+class QuizLoadTests {
+    
+    @LocalServerPort
+    private int port;
+    
+    @Test
+    void meetsLatencySlos() throws Exception {
+        List<String> violations = new LoadHarness("http://localhost:" + port).run();
+        assertTrue(violations.isEmpty(), "SLO violations:\n  " + String.join("\n  ", violations));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.quiz.backend.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link LoadHarness} against the external instance at
+ * {@code quiz.load.base-url} without starting an application context, so
+ * the measured process is the only one serving requests.
+ */
+@EnabledIfSystemProperty(named = "quiz.load.enabled", matches = "true")
+@EnabledIfSystemProperty(named = "quiz.load.base-url", matches = ".+")
+class RemoteQuizLoadTests {
+    
+    @Test
+    void meetsLatencySlos() throws Exception {
+        List<String> violations = new LoadHarness(System.getProperty("quiz.load.base-url")).run();
+        assertTrue(violations.isEmpty(), "SLO violations:\n  " + String.join("\n  ", violations));
+    }
+}
\ No newline at end of file
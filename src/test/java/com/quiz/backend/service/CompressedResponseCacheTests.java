@@ -0,0 +1,49 @@
+package com.quiz.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedResponseCacheTests {
+    
+    private final CompressedResponseCache cache = new CompressedResponseCache(new ObjectMapper());
+    private final AtomicInteger serializations = new AtomicInteger();
+    
+    @Test
+    void reusesPayloadUntilVersionMoves() {
+        CompressedResponseCache.Payload first = cache.get("leaderboard", 1, this::body);
+        CompressedResponseCache.Payload again = cache.get("leaderboard", 1, this::body);
+        CompressedResponseCache.Payload next = cache.get("leaderboard", 2, this::body);
+        
+        assertSame(first, again);
+        assertNotSame(first, next);
+        assertEquals(2, serializations.get());
+        assertEquals("[1,2,3]", new String(first.json(), StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    void hotKeysSurviveAFloodOfOneOffKeys() {
+        CompressedResponseCache.Payload hot = cache.get("leaderboard", 1, this::body);
+        
+        for (int i = 0; i < CompressedResponseCache.MAX_PAYLOADS * 2; i++) {
+            cache.get("leaderboard/random-" + i, 1, this::body);
+            cache.get("leaderboard", 1, this::body);
+        }
+        
+        assertSame(hot, cache.get("leaderboard", 1, this::body));
+        // One-off keys are still cached, but the oldest ones are evicted to make room
+        int before = serializations.get();
+        cache.get("leaderboard/random-0", 1, this::body);
+        assertEquals(before + 1, serializations.get());
+    }
+    
+    private Object body() {
+        serializations.incrementAndGet();
+        return List.of(1, 2, 3);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.quiz.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTests {
+    
+    private final AtomicInteger executions = new AtomicInteger();
+    
+    @Test
+    void replaysResultForSameKeyAndFingerprint() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1));
+        
+        int first = cache.execute("key", "body", executions::incrementAndGet, result -> true);
+        int retry = cache.execute("key", "body", executions::incrementAndGet, result -> true);
+        
+        assertEquals(1, first);
+        assertEquals(1, retry);
+        assertEquals(1, executions.get());
+    }
+    
+    @Test
+    void rejectsKeyReusedWithDifferentFingerprint() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1));
+        cache.execute("key", "body", executions::incrementAndGet, result -> true);
+        
+        assertThrows(IdempotencyCache.KeyReuseException.class,
+                () -> cache.execute("key", "other body", executions::incrementAndGet, result -> true));
+        assertEquals(1, executions.get());
+    }
+    
+    @Test
+    void doesNotKeepResultsRejectedAsNotCacheable() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1));
+        
+        cache.execute("key", "body", executions::incrementAndGet, result -> false);
+        int retry = cache.execute("key", "body", executions::incrementAndGet, result -> false);
+        
+        assertEquals(2, retry);
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    void failedExecutionCanBeRetried() {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1));
+        
+        assertThrows(IllegalStateException.class, () -> cache.execute("key", "body", () -> {
+            throw new IllegalStateException("boom");
+        }, result -> true));
+        int retry = cache.execute("key", "body", executions::incrementAndGet, result -> true);
+        
+        assertEquals(1, retry);
+    }
+    
+    @Test
+    void concurrentRetryWaitsForRunningAttempt() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = pool.submit(() -> cache.execute("key", "body", () -> {
+                started.countDown();
+                await(release);
+                return executions.incrementAndGet();
+            }, result -> true));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Integer> retry = pool.submit(() -> cache.execute("key", "body", executions::incrementAndGet, result -> true));
+            
+            Thread.sleep(50);
+            assertFalse(retry.isDone(), "retry should wait for the running attempt");
+            release.countDown();
+            
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, retry.get(5, TimeUnit.SECONDS));
+            assertEquals(1, executions.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    @Test
+    void sizeLimitNeverEvictsRunningEntries() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(1, Duration.ofMinutes(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> running = pool.submit(() -> cache.execute("running", "body", () -> {
+                started.countDown();
+                await(release);
+                return executions.incrementAndGet();
+            }, result -> true));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            
+            cache.execute("other", "body", () -> 100, result -> true);
+            cache.execute("another", "body", () -> 200, result -> true);
+            // The running key survived the overflow, so its retry waits instead of executing again
+            Future<Integer> retry = pool.submit(() -> cache.execute("running", "body", executions::incrementAndGet, result -> true));
+            
+            Thread.sleep(50);
+            assertFalse(retry.isDone(), "retry should wait for the running attempt");
+            release.countDown();
+            assertEquals(1, running.get(5, TimeUnit.SECONDS));
+            assertEquals(1, retry.get(5, TimeUnit.SECONDS));
+            assertEquals(1, executions.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    @Test
+    void evictsOldestCompletedEntriesOverLimit() {
+        IdempotencyCache cache = new IdempotencyCache(2, Duration.ofMinutes(1));
+        for (int i = 0; i < 5; i++) {
+            cache.execute("key-" + i, "body", executions::incrementAndGet, result -> true);
+        }
+        
+        assertEquals(2, cache.size());
+        assertEquals(6, cache.execute("key-0", "body", executions::incrementAndGet, result -> true));
+    }
+    
+    @Test
+    void expiredEntriesAreExecutedAgain() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMillis(20));
+        cache.execute("key", "body", executions::incrementAndGet, result -> true);
+        
+        Thread.sleep(50);
+        
+        assertEquals(2, cache.execute("key", "other body", executions::incrementAndGet, result -> true));
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
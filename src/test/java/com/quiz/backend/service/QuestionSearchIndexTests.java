@@ -0,0 +1,113 @@
+package com.quiz.backend.service;
+
+import com.quiz.backend.model.Question;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionSearchIndexTests {
+    
+    private QuestionSearchIndex index;
+    
+    @BeforeEach
+    void setUp() {
+        index = new QuestionSearchIndex(0.8);
+        index.add(question(1L, "What is the capital of France?", "Paris", "Lyon"));
+        index.add(question(2L, "What is the capital city of Japan?", "Tokyo", "Kyoto"));
+        index.add(question(3L, "Which planet is known as the Red Planet?", "Mars", "Venus"));
+    }
+    
+    @Test
+    void tokenizerLowerCasesAndSplitsOnNonAlphanumerics() {
+        assertEquals(List.of("what", "s", "e", "mc2", "über", "größe"),
+                new ArrayList<>(QuestionSearchIndex.tokenize("What's E=mc2? Über-Größe!")));
+        assertEquals(List.of("the", "cat"), new ArrayList<>(QuestionSearchIndex.tokenize("The cat, the CAT")));
+        assertTrue(QuestionSearchIndex.tokenize(null).isEmpty());
+        assertTrue(QuestionSearchIndex.tokenize(" ?! ").isEmpty());
+    }
+    
+    @Test
+    void lastWordMatchesAsPrefix() {
+        assertEquals(List.of(1L, 2L), sorted(index.search("capi", 10)));
+        assertEquals(List.of(3L), index.search("plan", 10));
+        assertEquals(List.of(2L), index.search("capital tok", 10));
+    }
+    
+    @Test
+    void trailingSeparatorRequiresWholeWord() {
+        assertTrue(index.search("capi ", 10).isEmpty());
+        assertEquals(List.of(1L, 2L), sorted(index.search("capital ", 10)));
+    }
+    
+    @Test
+    void everyWordMustMatch() {
+        assertEquals(List.of(1L), index.search("capital france", 10));
+        assertTrue(index.search("capital mars", 10).isEmpty());
+        assertTrue(index.search("unknown capital", 10).isEmpty());
+    }
+    
+    @Test
+    void searchHonoursLimit() {
+        assertEquals(1, index.search("what", 1).size());
+        assertTrue(index.search("what", 0).isEmpty());
+    }
+    
+    @Test
+    void removeCleansUpPostings() {
+        int before = index.termCount();
+        
+        index.remove(3L);
+        
+        // "which", "planet", "known", "as", "red", "mars" and "venus" only occurred in question 3
+        assertEquals(before - 7, index.termCount());
+        assertTrue(index.search("planet", 10).isEmpty());
+        assertEquals(List.of(1L, 2L), sorted(index.search("the", 10)));
+        
+        index.remove(1L);
+        index.remove(2L);
+        assertEquals(0, index.termCount());
+    }
+    
+    @Test
+    void findsNearDuplicates() {
+        Question rephrased = question(10L, "What is the capital of France", "Paris");
+        
+        assertEquals(List.of(1L), index.findNearDuplicates(rephrased));
+        assertTrue(index.findNearDuplicates(question(11L, "How many moons does Mars have?")).isEmpty());
+    }
+    
+    @Test
+    void nearDuplicateAtExactThresholdIsFound() {
+        // 0.28 * 25 evaluates to 7.000000000000001, which must not demand an eighth shared term
+        QuestionSearchIndex exact = new QuestionSearchIndex(0.28);
+        // Shares 7 of the new question's 25 terms, so the Jaccard similarity is exactly 0.28
+        exact.add(question(1L, terms(0, 7)));
+        // The shared terms are common, leaving the 18 unshared ones as the rarest
+        exact.add(question(2L, terms(0, 7) + " other words here"));
+        
+        Question candidate = question(3L, terms(0, 25));
+        
+        assertEquals(List.of(1L), exact.findNearDuplicates(candidate));
+    }
+    
+    private static String terms(int from, int to) {
+        StringBuilder text = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            text.append("term").append(i).append(' ');
+        }
+        return text.toString();
+    }
+    
+    private static List<Long> sorted(List<Long> ids) {
+        List<Long> copy = new ArrayList<>(ids);
+        Collections.sort(copy);
+        return copy;
+    }
+    
+    private static Question question(Long id, String text, String... options) {
+        return new Question(id, text, List.of(options), 0, "General", "Easy");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.quiz.backend.service;
+
+import com.quiz.backend.model.Question;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionSelectionEngineTests {
+    
+    private QuestionSelectionEngine engine;
+    
+    @BeforeEach
+    void setUp() {
+        engine = new QuestionSelectionEngine(50, 100);
+        for (long id = 1; id <= 10; id++) {
+            engine.onQuestionAdded(question(id, "Science", id <= 5 ? "Easy" : "Hard"));
+        }
+        engine.onQuestionAdded(question(11L, "History", "Easy"));
+    }
+    
+    @Test
+    void selectsDistinctQuestionsFromRequestedPool() {
+        List<Long> drawn = engine.select("science", "easy", 10, null);
+        
+        assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), new HashSet<>(drawn));
+        assertEquals(5, drawn.size());
+    }
+    
+    @Test
+    void holdsBackQuestionsTheUserSawRecently() {
+        Set<Long> first = new HashSet<>(engine.select("Science", null, 5, "user@example.com"));
+        Set<Long> second = new HashSet<>(engine.select("Science", null, 5, "user@example.com"));
+        
+        assertTrue(Collections.disjoint(first, second));
+    }
+    
+    @Test
+    void ignoresAnswersToQuestionsNotServedToTheUser() {
+        double before = engine.weightOf(11L);
+        
+        engine.onQuestionAnswered("user@example.com", 11L, true);
+        engine.onQuestionAnswered(null, 11L, true);
+        
+        assertEquals(before, engine.weightOf(11L), 1e-12);
+    }
+    
+    @Test
+    void countsEachServedQuestionOnce() {
+        engine.select("History", null, 1, "user@example.com");
+        double served = engine.weightOf(11L);
+        
+        engine.onQuestionAnswered("User@Example.com", 11L, true);
+        double answered = engine.weightOf(11L);
+        engine.onQuestionAnswered("user@example.com", 11L, true);
+        
+        assertNotEquals(served, answered);
+        assertEquals(answered, engine.weightOf(11L), 1e-12);
+    }
+    
+    @Test
+    void deletedQuestionsAreNoLongerSelected() {
+        engine.onQuestionDeleted(question(3L, "Science", "Easy"));
+        
+        assertFalse(engine.select("Science", null, null, null).contains(3L));
+        assertFalse(engine.select("Science", "Easy", null, null).contains(3L));
+    }
+    
+    private static Question question(Long id, String category, String difficulty) {
+        return new Question(id, "Question " + id, List.of("a", "b", "c", "d"), 0, category, difficulty);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.quiz.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionSelectorTests {
+    
+    private final Random random = new Random(42);
+    
+    @Test
+    void drawsDistinctIds() {
+        QuestionSelector selector = selectorWith(50);
+        
+        for (int round = 0; round < 100; round++) {
+            List<Long> drawn = selector.draw(20, Set.of(), random);
+            assertEquals(20, drawn.size());
+            assertEquals(20, new HashSet<>(drawn).size());
+        }
+    }
+    
+    @Test
+    void countLargerThanPoolReturnsWholePool() {
+        QuestionSelector selector = selectorWith(5);
+        
+        List<Long> drawn = selector.draw(10, Set.of(), random);
+        
+        assertEquals(Set.of(0L, 1L, 2L, 3L, 4L), new HashSet<>(drawn));
+        assertEquals(5, drawn.size());
+    }
+    
+    @Test
+    void avoidedIdsAreDrawnOnlyOnceThePoolRunsOut() {
+        QuestionSelector selector = selectorWith(10);
+        Set<Long> avoid = Set.of(0L, 1L, 2L, 3L, 4L);
+        
+        for (int round = 0; round < 100; round++) {
+            List<Long> drawn = selector.draw(5, avoid, random);
+            assertTrue(Collections.disjoint(avoid, drawn), "drew an avoided id: " + drawn);
+        }
+        
+        List<Long> drawn = selector.draw(7, avoid, random);
+        assertEquals(7, new HashSet<>(drawn).size());
+        assertTrue(drawn.subList(0, 5).containsAll(Set.of(5L, 6L, 7L, 8L, 9L)));
+        assertTrue(avoid.containsAll(drawn.subList(5, 7)));
+    }
+    
+    @Test
+    void drawRestoresWeights() {
+        QuestionSelector selector = selectorWith(20);
+        double total = selector.prefixSum(20);
+        
+        selector.draw(15, Set.of(1L, 2L), random);
+        
+        assertEquals(total, selector.prefixSum(20), 1e-9);
+    }
+    
+    @Test
+    void removedSlotIsReusedByNextAdd() {
+        QuestionSelector selector = selectorWith(5);
+        
+        selector.remove(2L);
+        assertEquals(4, selector.size());
+        assertEquals(4.0, selector.prefixSum(5), 1e-9);
+        for (int round = 0; round < 50; round++) {
+            assertFalse(selector.draw(5, Set.of(), random).contains(2L));
+        }
+        
+        selector.add(99L, 1.0);
+        assertEquals(5, selector.size());
+        // The freed slot was taken, so the pool did not grow past its five slots
+        assertEquals(5.0, selector.prefixSum(5), 1e-9);
+        assertEquals(Set.of(0L, 1L, 3L, 4L, 99L), new HashSet<>(selector.draw(5, Set.of(), random)));
+    }
+    
+    @Test
+    void growKeepsPrefixSums() {
+        QuestionSelector selector = new QuestionSelector();
+        for (int i = 0; i < 40; i++) {
+            selector.add(i, i + 1);
+        }
+        selector.update(3L, 0.5);
+        
+        double expected = 0;
+        for (int slots = 0; slots <= 40; slots++) {
+            assertEquals(expected, selector.prefixSum(slots), 1e-9);
+            if (slots < 40) {
+                expected += slots == 3 ? 0.5 : slots + 1;
+            }
+        }
+    }
+    
+    @Test
+    void drawFrequencyFollowsWeight() {
+        QuestionSelector selector = new QuestionSelector();
+        selector.add(1L, 1.0);
+        selector.add(2L, 3.0);
+        selector.add(3L, 0.0);
+        
+        int[] hits = new int[4];
+        int draws = 20_000;
+        for (int i = 0; i < draws; i++) {
+            hits[selector.draw(1, Set.of(), random).get(0).intValue()]++;
+        }
+        
+        assertEquals(0.25, hits[1] / (double) draws, 0.02);
+        assertEquals(0.75, hits[2] / (double) draws, 0.02);
+        assertEquals(0, hits[3]);
+    }
+    
+    private static QuestionSelector selectorWith(int size) {
+        QuestionSelector selector = new QuestionSelector();
+        for (long id = 0; id < size; id++) {
+            selector.add(id, 1.0);
+        }
+        return selector;
+    }
+}
\ No newline at end of file
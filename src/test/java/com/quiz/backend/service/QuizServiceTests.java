@@ -0,0 +1,115 @@
+package com.quiz.backend.service;
+
+import com.quiz.backend.model.Question;
+import com.quiz.backend.model.QuizResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuizServiceTests {
+    
+    private QuizShardRouter router;
+    private QuizService quizService;
+    
+    @BeforeEach
+    void setUp() {
+        router = new QuizShardRouter(true, 2);
+        quizService = new QuizService(router, new QuestionSelectionEngine(50, 100), new QuestionSearchIndex(0.8));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        router.shutdown();
+    }
+    
+    @Test
+    void globalLeaderboardMergesCategoryTopLists() {
+        addQuestion("Astronomy", "Which planet is largest?");
+        addQuestion("Botany", "Which plant is a succulent?");
+        int[] astronomyScores = {10, 4, 8, 2, 6, 12, 1, 3, 5, 7, 9, 11};
+        int[] botanyScores = {15, 0, 13, 14};
+        for (int score : astronomyScores) {
+            quizService.saveResult(result("Astronomy", score));
+        }
+        for (int score : botanyScores) {
+            quizService.saveResult(result("botany", score));
+        }
+        
+        List<QuizResult> leaderboard = quizService.getLeaderboard();
+        
+        assertEquals(List.of(15, 14, 13, 12, 11, 10, 9, 8, 7, 6),
+                leaderboard.stream().map(QuizResult::getScore).toList());
+        assertEquals(QuizShard.LEADERBOARD_SIZE, quizService.getLeaderboardByCategory("ASTRONOMY").size());
+        assertEquals(List.of(15, 14, 13, 0),
+                quizService.getLeaderboardByCategory("Botany").stream().map(QuizResult::getScore).toList());
+    }
+    
+    @Test
+    void saveResultRejectsUnknownCategories() {
+        int shards = router.getShards().size();
+        long version = quizService.getLeaderboardVersion();
+        
+        assertThrows(IllegalArgumentException.class, () -> quizService.saveResult(result("No Such Category", 5)));
+        
+        assertEquals(shards, router.getShards().size());
+        assertEquals(version, quizService.getLeaderboardVersion());
+        assertTrue(router.findShard("No Such Category").isEmpty());
+    }
+    
+    @Test
+    void deleteQuestionUpdatesCategoryAndIndexes() {
+        Question first = addQuestion("Astronomy", "Which quasar is brightest?");
+        Question second = addQuestion("Astronomy", "Which nebula is nearest?");
+        long version = quizService.getQuestionsVersion();
+        
+        quizService.deleteQuestion(first.getId());
+        assertTrue(quizService.getQuestionById(first.getId()).isEmpty());
+        assertTrue(router.findShardForQuestion(first.getId()).isEmpty());
+        assertTrue(quizService.isKnownCategory("astronomy"));
+        assertTrue(quizService.searchQuestions("quasar", 10).isEmpty());
+        assertEquals(List.of(second), quizService.searchQuestions("nebula", 10));
+        
+        quizService.deleteQuestion(second.getId());
+        assertFalse(quizService.isKnownCategory("Astronomy"));
+        assertFalse(quizService.getAllCategories().contains("Astronomy"));
+        assertTrue(quizService.getQuestionsByCategory("Astronomy").isEmpty());
+        assertEquals(version + 2, quizService.getQuestionsVersion());
+        assertThrows(IllegalArgumentException.class, () -> quizService.saveResult(result("Astronomy", 5)));
+    }
+    
+    @Test
+    void leaderboardOutlivesTheCategorysLastQuestion() {
+        Question question = addQuestion("Astronomy", "Which quasar is brightest?");
+        assertFalse(quizService.hasLeaderboard("Astronomy"));
+        QuizResult result = quizService.saveResult(result("Astronomy", 5));
+        
+        quizService.deleteQuestion(question.getId());
+        
+        assertFalse(quizService.isKnownCategory("Astronomy"));
+        assertTrue(quizService.hasLeaderboard("astronomy"));
+        assertEquals(List.of(result), quizService.getLeaderboardByCategory("Astronomy"));
+        assertFalse(quizService.hasLeaderboard("No Such Category"));
+    }
+    
+    @Test
+    void questionsAreRoutedToTheirCategoryShard() {
+        Question question = addQuestion("Astronomy", "Which planet is largest?");
+        
+        QuizShard shard = router.findShardForQuestion(question.getId()).orElseThrow();
+        assertSame(router.shardFor("astronomy"), shard);
+        assertSame(question, quizService.getQuestionById(question.getId()).orElseThrow());
+        assertEquals(List.of(question), quizService.getQuestionsByCategory("ASTRONOMY"));
+    }
+    
+    private Question addQuestion(String category, String text) {
+        return quizService.addQuestion(new Question(null, text, List.of("a", "b", "c", "d"), 0, category, "Easy"));
+    }
+    
+    private static QuizResult result(String category, int score) {
+        return new QuizResult(null, "user", "user@example.com", score, 15, category, "Easy", 60);
+    }
+}
\ No newline at end of file
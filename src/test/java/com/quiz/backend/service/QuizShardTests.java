@@ -0,0 +1,144 @@
+package com.quiz.backend.service;
+
+import com.quiz.backend.model.Question;
+import com.quiz.backend.model.QuizResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuizShardTests {
+    
+    private final LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private final List<QuizShardRouter> routers = new ArrayList<>();
+    private long nextId;
+    
+    @AfterEach
+    void tearDown() {
+        routers.forEach(QuizShardRouter::shutdown);
+    }
+    
+    @Test
+    void leaderboardKeepsHighestScoresFirst() {
+        QuizShard shard = router(true).shardFor("Science");
+        int[] scores = {3, 9, 1, 7, 10, 2, 8, 4, 6, 5, 0, 9};
+        for (int i = 0; i < scores.length; i++) {
+            shard.addResult(result("Science", scores[i], i));
+        }
+        
+        assertEquals(List.of(10, 9, 9, 8, 7, 6, 5, 4, 3, 2), scoresOf(shard.getLeaderboard("science")));
+    }
+    
+    @Test
+    void earlierCompletionWinsTiesOnScore() {
+        QuizShard shard = router(true).shardFor("Science");
+        QuizResult late = shard.addResult(result("Science", 7, 30));
+        QuizResult early = shard.addResult(result("Science", 7, 10));
+        QuizResult middle = shard.addResult(result("Science", 7, 20));
+        for (int i = 0; i < QuizShard.LEADERBOARD_SIZE - 2; i++) {
+            shard.addResult(result("Science", 9, i));
+        }
+        
+        List<QuizResult> leaderboard = shard.getLeaderboard("Science");
+        assertEquals(QuizShard.LEADERBOARD_SIZE, leaderboard.size());
+        assertSame(early, leaderboard.get(QuizShard.LEADERBOARD_SIZE - 2));
+        assertSame(middle, leaderboard.get(QuizShard.LEADERBOARD_SIZE - 1));
+        assertFalse(leaderboard.contains(late));
+    }
+    
+    @Test
+    void versionMovesOnlyWhenTheTopListChanges() {
+        QuizShard shard = router(true).shardFor("Science");
+        for (int i = 0; i < QuizShard.LEADERBOARD_SIZE; i++) {
+            shard.addResult(result("Science", 5, i));
+        }
+        long version = shard.getLeaderboardVersion();
+        
+        shard.addResult(result("Science", 1, 100));
+        assertEquals(version, shard.getLeaderboardVersion());
+        
+        shard.addResult(result("Science", 6, 100));
+        assertEquals(version + 1, shard.getLeaderboardVersion());
+    }
+    
+    @Test
+    void partitionedRouterGivesEachCategoryItsOwnShard() {
+        QuizShardRouter router = router(true);
+        
+        QuizShard science = router.shardFor("Science");
+        assertSame(science, router.shardFor("SCIENCE"));
+        assertNotSame(science, router.shardFor("History"));
+        assertTrue(router.findShard("Geography").isEmpty());
+        assertEquals(2, router.getShards().size());
+    }
+    
+    @Test
+    void unpartitionedRouterSharesOneShard() {
+        QuizShardRouter router = router(false);
+        
+        QuizShard shard = router.shardFor("Science");
+        assertSame(shard, router.shardFor("History"));
+        assertEquals(1, router.getShards().size());
+        
+        shard.addQuestion(question("Science"));
+        shard.addResult(result("Science", 4, 0));
+        shard.addResult(result("History", 8, 1));
+        
+        // Leaderboards stay per category inside the shared shard
+        assertEquals(List.of(4), scoresOf(shard.getLeaderboard("Science")));
+        assertEquals(List.of(8), scoresOf(shard.getLeaderboard("History")));
+        assertTrue(router.findShardWithCategory("Science").isPresent());
+        assertTrue(router.findShardWithCategory("History").isEmpty());
+    }
+    
+    @Test
+    void categoryCountsFollowQuestionWrites() {
+        QuizShard shard = router(true).shardFor("Science");
+        Question first = shard.addQuestion(question("Science"));
+        Question second = shard.addQuestion(question("science"));
+        
+        shard.removeQuestion(first.getId());
+        assertTrue(shard.hasCategory("SCIENCE"));
+        
+        shard.removeQuestion(second.getId());
+        assertFalse(shard.hasCategory("Science"));
+        assertNull(shard.removeQuestion(second.getId()));
+    }
+    
+    @Test
+    void removeOldestResultsDropsFromTheHead() {
+        QuizShard shard = router(true).shardFor("Science");
+        QuizResult oldest = shard.addResult(result("Science", 1, 0));
+        QuizResult older = shard.addResult(result("Science", 2, 1));
+        QuizResult newest = shard.addResult(result("Science", 3, 5));
+        
+        assertEquals(List.of(oldest, older), shard.getResultsCompletedBefore(start.plusMinutes(2)));
+        
+        shard.removeOldestResults(2);
+        assertEquals(List.of(newest), new ArrayList<>(shard.getResults()));
+    }
+    
+    private QuizShardRouter router(boolean partitioned) {
+        QuizShardRouter router = new QuizShardRouter(partitioned, 2);
+        routers.add(router);
+        return router;
+    }
+    
+    private QuizResult result(String category, int score, int minutesAfterStart) {
+        QuizResult result = new QuizResult(null, "user", "user@example.com", score, 10, category, "Easy", 60);
+        result.setId(++nextId);
+        result.setCompletedAt(start.plusMinutes(minutesAfterStart));
+        return result;
+    }
+    
+    private Question question(String category) {
+        return new Question(++nextId, "Question " + nextId, List.of("a", "b"), 0, category, "Easy");
+    }
+    
+    private static List<Integer> scoresOf(List<QuizResult> results) {
+        return results.stream().map(QuizResult::getScore).toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,203 @@
+package com.quiz.backend.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.quiz.backend.model.QuizResult;
+import com.quiz.backend.model.ResultAggregate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultArchiveServiceTests {
+    
+    @TempDir
+    Path archiveDir;
+    
+    // Configured like the mapper Spring Boot hands the service
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final LocalDateTime now = LocalDateTime.now();
+    private final LocalDateTime cutoff = now.minusDays(30);
+    
+    private QuizShardRouter router;
+    private ResultArchiveService archive;
+    private long nextId;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        router = new QuizShardRouter(true, 2);
+        archive = newService();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        router.shutdown();
+    }
+    
+    @Test
+    void compactionMovesOnlyResultsBeforeTheCutoff() throws IOException {
+        QuizResult oldest = addResult("Science", "Easy", "ann@example.com", 40);
+        QuizResult older = addResult("Science", "Easy", "bob@example.com", 35);
+        QuizResult otherShard = addResult("History", "Hard", "ann@example.com", 31);
+        QuizResult recent = addResult("Science", "Easy", "bob@example.com", 1);
+        
+        assertEquals(3, archive.compact(cutoff));
+        
+        assertEquals(List.of(recent), new ArrayList<>(router.shardFor("Science").getResults()));
+        assertTrue(router.shardFor("History").getResults().isEmpty());
+        assertEquals(Set.of(oldest.getId(), older.getId(), otherShard.getId()), archivedIds(null, null));
+        assertEquals(1, archiveFiles().size());
+        assertEquals(3, archive.getArchivedCount());
+        
+        // A second run finds nothing new and leaves the archive as it was
+        assertEquals(0, archive.compact(cutoff));
+        assertEquals(3, archivedIds(null, null).size());
+    }
+    
+    @Test
+    void newInstanceRestoresTheSameAggregates() throws IOException {
+        addResult("Science", "Easy", "ann@example.com", 40);
+        addResult("Science", "Hard", "bob@example.com", 40);
+        addResult("History", "Easy", "ann@example.com", 40);
+        archive.compact(cutoff);
+        List<String> expected = describe(archive.getAggregates());
+        
+        ResultArchiveService restored = newService();
+        assertEquals(expected, describe(restored.getAggregates()));
+        assertEquals(3, restored.getArchivedCount());
+        
+        // Without the snapshot the aggregates are rebuilt from the archive files
+        Files.delete(archiveDir.resolve("aggregates.json"));
+        ResultArchiveService rescanned = newService();
+        assertEquals(expected, describe(rescanned.getAggregates()));
+        assertEquals(3, rescanned.getArchivedCount());
+        assertTrue(Files.exists(archiveDir.resolve("aggregates.json")));
+    }
+    
+    @Test
+    void aggregatesIgnoreCategoryAndDifficultyCase() throws IOException {
+        addResult("Science", "Easy", "ann@example.com", 40);
+        addResult("science", "EASY", "bob@example.com", 40);
+        archive.compact(cutoff);
+        
+        List<ResultAggregate> aggregates = archive.getAggregates();
+        assertEquals(1, aggregates.size());
+        assertEquals(2, aggregates.get(0).getAttempts());
+        assertEquals(describe(aggregates), describe(newService().getAggregates()));
+    }
+    
+    @Test
+    void streamingAppliesUserAndCategoryFilters() throws IOException {
+        QuizResult annScience = addResult("Science", "Easy", "ann@example.com", 40);
+        QuizResult bobScience = addResult("Science", "Easy", "bob@example.com", 40);
+        QuizResult annHistory = addResult("History", "Easy", "ann@example.com", 40);
+        archive.compact(cutoff);
+        
+        assertEquals(Set.of(annScience.getId(), annHistory.getId()), archivedIds("ANN@example.com", null));
+        assertEquals(Set.of(annScience.getId(), bobScience.getId()), archivedIds(null, "science"));
+        assertEquals(Set.of(annScience.getId()), archivedIds("ann@example.com", "Science"));
+        assertTrue(archivedIds("nobody@example.com", null).isEmpty());
+    }
+    
+    @Test
+    void closedPeriodsAreMergedIntoOneFile() throws Exception {
+        addResult("Science", "Easy", "ann@example.com", 40);
+        archive.compact(cutoff);
+        Thread.sleep(5);
+        addResult("History", "Easy", "bob@example.com", 40);
+        archive.compact(cutoff);
+        assertEquals(2, archiveFiles().size());
+        Set<Long> ids = archivedIds(null, null);
+        
+        archive.mergeClosedPeriods(LocalDate.now().plusDays(1));
+        assertEquals(List.of("results-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + ".ndjson.gz"),
+                archiveFiles());
+        assertEquals(ids, archivedIds(null, null));
+        
+        archive.mergeClosedPeriods(LocalDate.now().plusMonths(1));
+        assertEquals(1, archiveFiles().size());
+        assertEquals(ids, archivedIds(null, null));
+        
+        // The snapshot still covers the merged files, so startup does not count them twice
+        ResultArchiveService restored = newService();
+        assertEquals(2, restored.getArchivedCount());
+        assertEquals(describe(archive.getAggregates()), describe(restored.getAggregates()));
+    }
+    
+    @Test
+    void startupDropsFilesLeftBehindByAnInterruptedMerge() throws IOException {
+        addResult("Science", "Easy", "ann@example.com", 40);
+        archive.compact(cutoff);
+        Path segment = archiveDir.resolve(archiveFiles().get(0));
+        // As if a merge had written the day file but not yet deleted its input
+        Files.copy(segment, archiveDir.resolve("results-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + ".ndjson.gz"));
+        Files.delete(archiveDir.resolve("aggregates.json"));
+        
+        ResultArchiveService restored = newService();
+        
+        assertFalse(Files.exists(segment));
+        assertEquals(1, restored.getArchivedCount());
+        assertEquals(1, archivedIds(null, null).size());
+    }
+    
+    private ResultArchiveService newService() throws IOException {
+        ResultArchiveService service = new ResultArchiveService(router, objectMapper, true,
+                Duration.ofDays(30), archiveDir.toString());
+        service.loadAggregates();
+        return service;
+    }
+    
+    private QuizResult addResult(String category, String difficulty, String userEmail, int daysAgo) {
+        QuizResult result = new QuizResult(null, userEmail.substring(0, userEmail.indexOf('@')), userEmail,
+                3, 5, category, difficulty, 60);
+        result.setId(++nextId);
+        result.setCompletedAt(now.minusDays(daysAgo));
+        return router.shardFor(category).addResult(result);
+    }
+    
+    private Set<Long> archivedIds(String userEmail, String category) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        archive.streamArchive(userEmail, category, out);
+        Set<Long> ids = new HashSet<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                assertTrue(ids.add(objectMapper.readValue(line, QuizResult.class).getId()), "duplicate line " + line);
+            }
+        }
+        return ids;
+    }
+    
+    private List<String> archiveFiles() throws IOException {
+        try (Stream<Path> listing = Files.list(archiveDir)) {
+            return listing.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".ndjson.gz"))
+                    .sorted()
+                    .toList();
+        }
+    }
+    
+    private static List<String> describe(List<ResultAggregate> aggregates) {
+        return aggregates.stream()
+                .map(a -> a.getCategory().toLowerCase(Locale.ROOT) + "|" + a.getDifficulty().toLowerCase(Locale.ROOT)
+                        + " " + a.getAttempts() + " " + a.getTotalScore() + " " + a.getTotalQuestions()
+                        + " " + a.getTotalTimeTaken())
+                .toList();
+    }
+}
\ No newline at end of file